@@ -0,0 +1,10 @@
+package com.example.ecommerce_app.Config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/** Runs {@code @ApplicationModuleListener}s off the publishing thread, on Boot's task executor. */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce_app.Config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Product catalog caches. The caches themselves are created by Spring Boot from the
+ * {@code spring.cache.*} properties (Caffeine, bounded by size and TTL, with stats
+ * recorded so hit/miss/eviction counters show up under {@code /actuator/metrics/cache.*}).
+ * <p>
+ * The user cache resolves the caller of authenticated requests. It gets its own, much shorter TTL
+ * so a change made outside {@code UserService} is picked up within seconds.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS = "products";
+    public static final String PRODUCTS_BY_CATEGORY = "productsByCategory";
+    public static final String PRODUCT_SEARCH = "productSearch";
+    public static final String USERS_BY_USERNAME = "usersByUsername";
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> userCacheCustomizer(
+            @Value("${security.user-cache.max-size:10000}") long maximumSize,
+            @Value("${security.user-cache.ttl:PT30S}") Duration ttl) {
+        return cacheManager -> cacheManager.registerCustomCache(USERS_BY_USERNAME,
+                Caffeine.newBuilder().maximumSize(maximumSize).expireAfterWrite(ttl).recordStats().build());
+    }
+}
@@ -1,16 +1,25 @@
 package com.example.ecommerce_app.Config;
 
+import com.example.ecommerce_app.Services.CachingJwtDecoder;
+import com.example.ecommerce_app.Services.JwtTokenService;
+import com.example.ecommerce_app.Services.RevocationCheckingJwtDecoder;
+import com.example.ecommerce_app.Services.TokenRevocationList;
 import com.nimbusds.jose.jwk.source.ImmutableSecret;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
 import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 
 import javax.crypto.spec.SecretKeySpec;
+import java.util.function.Predicate;
 
 @Configuration
 public class JwtConfig {
@@ -18,17 +27,36 @@ public class JwtConfig {
     @Value("${jwt.key}")
     private String jwtKey;
 
+    @Value("${security.jwt.decode-cache.max-size:10000}")
+    private long decodeCacheSize;
+
     @Bean
     public JwtEncoder jwtEncoder() {
         return new NimbusJwtEncoder(new ImmutableSecret<>(jwtKey.getBytes()));
     }
 
+    /** Bearer tokens: access tokens only (tokens issued before refresh tokens existed carry no token use). */
+    @Bean
+    @Primary
+    public JwtDecoder jwtDecoder(TokenRevocationList revocations) {
+        NimbusJwtDecoder verifier = verifier(use -> use == null || JwtTokenService.ACCESS_TOKEN.equals(use));
+        return new RevocationCheckingJwtDecoder(new CachingJwtDecoder(verifier, decodeCacheSize), revocations);
+    }
+
+    /** Refresh tokens, verified only when exchanged; their rotation does its own revocation checks. */
     @Bean
-    public JwtDecoder jwtDecoder() {
+    public JwtDecoder refreshTokenDecoder() {
+        return verifier(JwtTokenService.REFRESH_TOKEN::equals);
+    }
+
+    private NimbusJwtDecoder verifier(Predicate<String> tokenUse) {
         byte[] bytes = jwtKey.getBytes();
         SecretKeySpec originalKey = new SecretKeySpec(bytes, 0, bytes.length, "RSA");
-        return NimbusJwtDecoder.withSecretKey(originalKey)
+        NimbusJwtDecoder verifier = NimbusJwtDecoder.withSecretKey(originalKey)
                 .macAlgorithm(MacAlgorithm.HS256)
                 .build();
+        verifier.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                JwtValidators.createDefault(), new JwtClaimValidator<>(JwtTokenService.TOKEN_USE_CLAIM, tokenUse)));
+        return verifier;
     }
 }
@@ -0,0 +1,51 @@
+package com.example.ecommerce_app.Config;
+
+import com.example.ecommerce_app.Services.LoginRateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Throttles the login endpoints before the request reaches Spring Security or the controller, so a refused
+ * attempt costs no password hash. Refused attempts get a 429 with {@code Retry-After}; attempts that end
+ * in a successful login give their tokens back.
+ */
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    private final LoginRateLimiter limiter;
+
+    public LoginRateLimitFilter(LoginRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String clientIp = request.getRemoteAddr();
+        String account = request.getParameter("username");
+        if (account == null) {
+            account = request.getParameter("email");
+        }
+
+        Duration wait = limiter.tryAcquire(clientIp, account);
+        if (!wait.isZero()) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", Long.toString(Math.max(1, wait.toSeconds() + (wait.toNanosPart() > 0 ? 1 : 0))));
+            response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+            response.getWriter().write("Too many login attempts, retry later");
+            return;
+        }
+
+        chain.doFilter(request, response);
+        if (HttpStatus.valueOf(response.getStatus()).is2xxSuccessful()) {
+            limiter.refund(account);
+        }
+    }
+}
@@ -1,22 +1,34 @@
 package com.example.ecommerce_app.Config;
 
+import com.example.ecommerce_app.Model.UserPrincipal;
+import com.example.ecommerce_app.Services.BoundedPasswordEncoder;
+import com.example.ecommerce_app.Services.CalibratedBCryptPasswordEncoder;
+import com.example.ecommerce_app.Services.LoginRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationDecision;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -35,9 +47,13 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> {
                     auth.requestMatchers("/h2-console/**",
                             "/api/users/login/**",
-                            "/api/users/register/**"
+                            "/api/users/register/**",
+                            "/api/users/token/refresh"
                             ,"/error/**").permitAll();
 
+                    auth.requestMatchers("/api/admin/**")
+                            .access((authentication, context) -> new AuthorizationDecision(isAdmin(authentication.get())));
+
                     auth.anyRequest().authenticated();
                 })
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
@@ -46,19 +62,58 @@ public class SecurityConfig {
 
     }
 
+    // Role claim of the access token; roles are stored with or without the ROLE_ prefix
+    private static boolean isAdmin(Authentication authentication) {
+        if (authentication instanceof JwtAuthenticationToken token) {
+            String role = token.getToken().getClaimAsString(UserPrincipal.ROLE_CLAIM);
+            return "ADMIN".equals(role) || "ROLE_ADMIN".equals(role);
+        }
+        return false;
+    }
+
+    /**
+     * New hashes are written as {@code {bcrypt}} at the configured cost. A cost of 0 opts into calibrating one
+     * to {@code target-latency} on startup, which can differ between nodes and boots. Hashes stored without an
+     * id prefix are the original BCrypt ones and still verify; they, and hashes of a lower cost, are rewritten
+     * on login, as are hashes of a higher cost when {@code allow-downgrade} is set.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder(10);
+    public PasswordEncoder passwordEncoder(@Value("${security.password.bcrypt.strength:12}") int strength,
+                                           @Value("${security.password.bcrypt.allow-downgrade:false}") boolean allowDowngrade,
+                                           @Value("${security.password.bcrypt.target-latency:PT0.1S}") Duration targetLatency,
+                                           @Value("${security.password.bcrypt.min-strength:10}") int minStrength,
+                                           @Value("${security.password.bcrypt.max-strength:16}") int maxStrength,
+                                           @Value("${security.password.hashing.threads:0}") int threads,
+                                           @Value("${security.password.hashing.queue-capacity:200}") int queueCapacity,
+                                           @Value("${security.password.hashing.wait-timeout:PT5S}") Duration waitTimeout,
+                                           MeterRegistry meterRegistry) {
+        int cost = strength > 0 ? strength : CalibratedBCryptPasswordEncoder.calibrate(targetLatency, minStrength, maxStrength);
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(CalibratedBCryptPasswordEncoder.delegating(cost, allowDowngrade), poolSize, queueCapacity, waitTimeout, meterRegistry);
     }
 
     @Bean
-    public AuthenticationManager authManager(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder) {
+    public AuthenticationManager authManager(UserDetailsService userDetailsService, UserDetailsPasswordService passwordService,
+                                             PasswordEncoder passwordEncoder) {
         var authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
+        authProvider.setUserDetailsPasswordService(passwordService);
         authProvider.setPasswordEncoder(passwordEncoder);
         return new ProviderManager(authProvider);
     }
 
+    /**
+     * Login throttling runs ahead of the security filter chain (but after request character encoding is set,
+     * since it reads the form parameters), so throttled attempts never reach authentication or hashing.
+     */
+    @Bean
+    public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration = new FilterRegistrationBean<>(new LoginRateLimitFilter(loginRateLimiter));
+        registration.addUrlPatterns("/api/users/login/*");
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 1);
+        return registration;
+    }
+
     @Bean
     CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
@@ -0,0 +1,34 @@
+package com.example.ecommerce_app.Controllers;
+
+import com.example.ecommerce_app.Services.DataFormat;
+import com.example.ecommerce_app.Services.ExportService;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/export")
+public class AdminExportController {
+
+    private final ExportService exportService;
+
+    public AdminExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    // GET /api/admin/export/{orders|order-items|payments|carts}?format=ndjson|csv
+    // Written straight to the response as rows are read, on the request thread, so no async timeout cuts a long export short
+    @GetMapping("/{dataset}")
+    public void export(@PathVariable String dataset,
+                       @RequestParam(defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        DataFormat exportFormat = DataFormat.parse(format);
+        exportService.checkDataset(dataset);
+        response.setContentType(exportFormat.contentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dataset + exportFormat.extension() + "\"");
+        exportService.export(dataset, exportFormat, response.getOutputStream());
+    }
+}
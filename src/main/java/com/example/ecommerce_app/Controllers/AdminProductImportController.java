@@ -0,0 +1,30 @@
+package com.example.ecommerce_app.Controllers;
+
+import com.example.ecommerce_app.DTO.ProductImportReport;
+import com.example.ecommerce_app.Services.DataFormat;
+import com.example.ecommerce_app.Services.ProductImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/products")
+public class AdminProductImportController {
+
+    private final ProductImportService productImportService;
+
+    public AdminProductImportController(ProductImportService productImportService) {
+        this.productImportService = productImportService;
+    }
+
+    // POST /api/admin/products/import?format=ndjson|csv with the rows as the request body
+    // Read straight from the request as it arrives, so an import of any size is never buffered whole
+    @PostMapping("/import")
+    public ResponseEntity<ProductImportReport> importProducts(@RequestParam(defaultValue = "ndjson") String format,
+                                                              HttpServletRequest request) throws IOException {
+        DataFormat importFormat = DataFormat.parse(format);
+        return ResponseEntity.ok(productImportService.importProducts(importFormat, request.getInputStream()));
+    }
+}
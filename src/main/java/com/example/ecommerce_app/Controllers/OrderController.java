@@ -1,15 +1,17 @@
 package com.example.ecommerce_app.Controllers;
 
-import com.example.ecommerce_app.Model.CartItem;
+import com.example.ecommerce_app.DTO.OrderHistoryPage;
 import com.example.ecommerce_app.Model.LocalUser;
 import com.example.ecommerce_app.Model.UserOrder;
 import com.example.ecommerce_app.Services.AuthService;
-import com.example.ecommerce_app.Services.CartService;
+import com.example.ecommerce_app.Services.OrderHistoryService;
 import com.example.ecommerce_app.Services.OrderService;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -18,12 +20,12 @@ public class OrderController {
 
     private final OrderService orderService;
     private final AuthService authService;
-    private final CartService cartService;
+    private final OrderHistoryService orderHistoryService;
 
-    public OrderController(OrderService orderService, AuthService authService, CartService cartService) {
+    public OrderController(OrderService orderService, AuthService authService, OrderHistoryService orderHistoryService) {
         this.orderService = orderService;
         this.authService = authService;
-        this.cartService = cartService;
+        this.orderHistoryService = orderHistoryService;
     }
 
     // GET /api/orders
@@ -33,6 +35,17 @@ public class OrderController {
         return orderService.getOrdersByUser(user, status);
     }
 
+    // GET /api/orders/history?before=&beforeId=&size=
+    @GetMapping("/history")
+    public OrderHistoryPage getOrderHistory(Authentication authentication,
+                                            @RequestParam(required = false) String status,
+                                            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime before,
+                                            @RequestParam(required = false) Long beforeId,
+                                            @RequestParam(required = false) Integer size) {
+        LocalUser user = authService.getUserFromAuthentication(authentication);
+        return orderHistoryService.getOrderHistory(user, status, before, beforeId, size);
+    }
+
     // GET /api/orders/{id}
     @GetMapping("/{id}")
     public UserOrder getOrder(@PathVariable Long id) {
@@ -43,8 +56,7 @@ public class OrderController {
     @PostMapping
     public UserOrder placeOrder(Authentication authentication) {
         LocalUser user = authService.getUserFromAuthentication(authentication);
-        List<CartItem> cartItems = getCartItemsFromUser(user); // implement this logic
-        return orderService.placeOrder(user, cartItems);
+        return orderService.checkout(user);
     }
 
     // PUT /api/orders/{id}
@@ -61,8 +73,4 @@ public class OrderController {
         return ResponseEntity.ok().build();
     }
 
-
-    private List<CartItem> getCartItemsFromUser(LocalUser user) {
-        return cartService.getCartByUser(user).getItems();
-    }
 }
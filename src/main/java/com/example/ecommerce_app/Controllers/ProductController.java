@@ -1,8 +1,16 @@
 package com.example.ecommerce_app.Controllers;
 
+import com.example.ecommerce_app.DTO.ProductBrowseResponse;
+import com.example.ecommerce_app.DTO.ProductPage;
+import com.example.ecommerce_app.DTO.ProductRangePage;
+import com.example.ecommerce_app.DTO.ProductSummary;
+import com.example.ecommerce_app.DTO.StockStripes;
 import com.example.ecommerce_app.Model.Product;
 import com.example.ecommerce_app.Repositories.ProductRepository;
+import com.example.ecommerce_app.Services.ProductNameTrie;
+import com.example.ecommerce_app.Services.ProductSearchIndex;
 import com.example.ecommerce_app.Services.ProductService;
+import com.example.ecommerce_app.Services.StripedStockService;
 import com.example.ecommerce_app.exception.ProductAlreadyExistsException;
 import com.example.ecommerce_app.exception.ProductNotExistException;
 import org.springframework.http.HttpStatus;
@@ -17,10 +25,18 @@ public class ProductController {
 
     private final ProductRepository productRepository;
     private final ProductService productService;
+    private final ProductSearchIndex productSearchIndex;
+    private final ProductNameTrie productNameTrie;
+    private final StripedStockService stripedStockService;
 
-    public ProductController(ProductRepository productRepository, ProductService productService) {
+    public ProductController(ProductRepository productRepository, ProductService productService,
+                             ProductSearchIndex productSearchIndex, ProductNameTrie productNameTrie,
+                             StripedStockService stripedStockService) {
         this.productRepository = productRepository;
         this.productService =  productService;
+        this.productSearchIndex = productSearchIndex;
+        this.productNameTrie = productNameTrie;
+        this.stripedStockService = stripedStockService;
     }
 
     @GetMapping
@@ -29,17 +45,24 @@ public class ProductController {
         return productRepository.findAll();
     }
 
+    @GetMapping("/page")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductPage getProductPage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(required = false) Integer size) {
+        return productService.getProductPage(after, size);
+    }
+
     @GetMapping("/{id}")
     @ResponseStatus(HttpStatus.OK)
     public Product getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+        return productService.getProductById(id);
     }
 
     @GetMapping("/category/{category}")
     @ResponseStatus(HttpStatus.OK)
     public List<Product> getProductsByCategory(@PathVariable String category) {
-        return productRepository.findByCategory(category);
+        return productService.getProductsByCategory(category);
     }
 
     @GetMapping("/search")
@@ -49,16 +72,33 @@ public class ProductController {
             @RequestParam(required = false) String category) {
         
         if (name != null && !name.isEmpty()) {
-            return productRepository.findByNameContainingIgnoreCase(name);
+            return productService.searchProductsByName(name);
         }
 
         
         if (category != null && !category.isEmpty()) {
-            return productRepository.findByCategory(category);
+            return productService.getProductsByCategory(category);
         }
         
         return productRepository.findAll();
     }
+
+    @GetMapping("/search/ranked")
+    @ResponseStatus(HttpStatus.OK)
+    public List<ProductSummary> searchProductsRanked(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        return productSearchIndex.search(q, productService.resolvePageSize(limit));
+    }
+
+    @GetMapping("/autocomplete")
+    @ResponseStatus(HttpStatus.OK)
+    public List<String> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(required = false) Integer limit) {
+        return productNameTrie.suggest(prefix, limit);
+    }
+
     @PostMapping
     public ResponseEntity<Product> createProduct(@Valid @RequestBody Product product)  {
         try{
@@ -92,9 +132,43 @@ public class ProductController {
     }
 
 
+    // Splits a hot product's stock over several rows for flash sales
+    @PutMapping("/{id}/stock-stripes")
+    @ResponseStatus(HttpStatus.OK)
+    public StockStripes enableStockStripes(@PathVariable Long id, @RequestParam int count) {
+        return stripedStockService.enable(id, count);
+    }
+
+    @DeleteMapping("/{id}/stock-stripes")
+    @ResponseStatus(HttpStatus.OK)
+    public StockStripes disableStockStripes(@PathVariable Long id) {
+        return stripedStockService.disable(id);
+    }
+
     @GetMapping("/{min}/{max}")
     public List<Product> getProductsInRange(@PathVariable double min, @PathVariable double max) {
-        return productRepository.findByPriceBetween(min, max);
+        return productService.getProductsInRange(min, max);
+    }
+
+    @GetMapping("/price-range")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductRangePage getProductsInRangePage(
+            @RequestParam double min,
+            @RequestParam double max,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return productService.getProductsInRange(min, max, category, page, size);
+    }
+
+    @GetMapping("/browse")
+    @ResponseStatus(HttpStatus.OK)
+    public ProductBrowseResponse browseProducts(
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) Integer band,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        return productService.browse(category, band, page, size);
     }
 
 
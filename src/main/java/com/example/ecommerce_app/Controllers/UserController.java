@@ -1,12 +1,13 @@
 package com.example.ecommerce_app.Controllers;
 
-import com.example.ecommerce_app.DTO.AuthRequest;
 import com.example.ecommerce_app.Model.LocalUser;
 import com.example.ecommerce_app.Services.AuthService;
 import com.example.ecommerce_app.Services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -43,10 +44,11 @@ public class UserController {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Username already exists");
         }
 
-        String rawPassword = user.getPassword();
-        userService.registerUser(user);
-        var response = authService.authenticate(new AuthRequest(user.getUsername(), rawPassword));
-        return ResponseEntity.ok(response);
+        String outcome = userService.registerUser(user);
+        if (!UserService.REGISTERED.equals(outcome)) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(outcome);
+        }
+        return ResponseEntity.ok(authService.issueToken(user));
     }
 
     @GetMapping("/allUsers") // get all the users
@@ -58,8 +60,7 @@ public class UserController {
     public ResponseEntity<?> loginWithEmail(@RequestParam String email, @RequestParam String password) {
         LocalUser user = userService.loginWithEmail(email, password);
         if (user != null) {
-            var response = authService.authenticate(new AuthRequest(user.getUsername(), password));
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok(authService.issueToken(user));
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid email or password");
         }
@@ -67,15 +68,30 @@ public class UserController {
 
     @PostMapping("/login/username") //login with username
     public ResponseEntity<?> loginWithUsername(@RequestParam String username, @RequestParam String password) {
-        if (userService.loginWithUsername(username, password) != null) {
-            var response = authService.authenticate(new AuthRequest(username, password));
-            return ResponseEntity.ok(response);
+        LocalUser user = userService.loginWithUsername(username, password);
+        if (user != null) {
+            return ResponseEntity.ok(authService.issueToken(user));
 //            return "Login successful";
         } else {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid username or password");
         }
     }
 
+    @PostMapping("/token/refresh") // exchange a refresh token for a new token pair
+    public ResponseEntity<?> refreshToken(@RequestParam String refreshToken) {
+        try {
+            return ResponseEntity.ok(authService.refresh(refreshToken));
+        } catch (JwtException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid or expired refresh token");
+        }
+    }
+
+    @PostMapping("/logout") // revoke the caller's session
+    public ResponseEntity<?> logout(Authentication authentication) {
+        authService.logout(authentication);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/reset-password") // resets the password
     public String resetPassword(String email, String oldPassword, String newPassword) {
         return userService.resetPassword(email, oldPassword, newPassword);
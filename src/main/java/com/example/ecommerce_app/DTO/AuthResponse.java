@@ -9,4 +9,5 @@ public class AuthResponse {
     private String token;
     private UserAuthResponse user;
     private Long expiresAt;
+    private String refreshToken;
 }
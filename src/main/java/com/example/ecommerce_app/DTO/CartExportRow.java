@@ -0,0 +1,18 @@
+package com.example.ecommerce_app.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One cart item in the analytics export, with its cart's fields; an empty cart is one row without item fields.
+ */
+public record CartExportRow(
+        long cartId,
+        long userId,
+        long cartVersion,
+        LocalDateTime cartUpdatedAt,
+        Long itemId,
+        Long productId,
+        Integer quantity,
+        LocalDateTime itemUpdatedAt
+)
+{}
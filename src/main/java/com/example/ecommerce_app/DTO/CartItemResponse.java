@@ -9,4 +9,5 @@ public class CartItemResponse {
     private String productName;
     private int quantity;
     private double price;
+    private long lineTotalCents;
 }
@@ -9,4 +9,8 @@ public class CartResponse {
     private Long id;
     private Long userId;
     private List<CartItemResponse> items;
+    private long subtotalCents;
+    private long discountCents;
+    private long taxCents;
+    private long totalCents;
 }
@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.DTO;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order in the analytics export.
+ */
+public record OrderExportRow(
+        long orderId,
+        long userId,
+        String status,
+        double totalPrice,
+        LocalDateTime orderDate
+)
+{}
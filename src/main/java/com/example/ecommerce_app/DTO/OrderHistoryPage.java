@@ -0,0 +1,17 @@
+package com.example.ecommerce_app.DTO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One page of a buyer's orders, newest first. {@code nextBefore} and {@code nextBeforeId} are the
+ * orderDate and orderID of the last order on the page and are passed back as {@code before} and
+ * {@code beforeId} to fetch the following page; both are null once the history is exhausted.
+ */
+public record OrderHistoryPage(
+        List<OrderSummary> items,
+        LocalDateTime nextBefore,
+        Long nextBeforeId,
+        boolean hasMore
+)
+{}
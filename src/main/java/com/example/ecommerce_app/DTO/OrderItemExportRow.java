@@ -0,0 +1,13 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * One order item in the analytics export.
+ */
+public record OrderItemExportRow(
+        long id,
+        long orderId,
+        String productName,
+        int quantity,
+        double price
+)
+{}
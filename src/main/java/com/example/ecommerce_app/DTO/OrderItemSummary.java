@@ -0,0 +1,12 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * One line of an order in the order history.
+ */
+public record OrderItemSummary(
+        long orderID,
+        String productName,
+        int quantity,
+        double price
+)
+{}
@@ -0,0 +1,23 @@
+package com.example.ecommerce_app.DTO;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Order history view of an order. Unlike {@code UserOrder} it carries no user,
+ * so listing a buyer's orders never loads or serializes the account.
+ */
+public record OrderSummary(
+        long orderID,
+        LocalDateTime orderDate,
+        String status,
+        double totalPrice,
+        List<OrderItemSummary> items
+)
+{
+    // Used by the repository projection; items are attached afterwards
+    public OrderSummary(long orderID, LocalDateTime orderDate, String status, double totalPrice) {
+        this(orderID, orderDate, status, totalPrice, new ArrayList<>());
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.ecommerce_app.DTO;
+
+import com.example.ecommerce_app.Model.PaymentStatus;
+
+import java.time.LocalDateTime;
+
+/**
+ * One payment in the analytics export.
+ */
+public record PaymentExportRow(
+        long id,
+        Long orderId,
+        Long userId,
+        String method,
+        Double amount,
+        PaymentStatus status,
+        String transactionId,
+        LocalDateTime createdAt
+)
+{}
@@ -0,0 +1,13 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * Facet count for one price band, covering {@code min <= price < max}.
+ * {@code max} is null for the open-ended top band.
+ */
+public record PriceBandCount(
+        int band,
+        double min,
+        Double max,
+        int count
+)
+{}
@@ -0,0 +1,14 @@
+package com.example.ecommerce_app.DTO;
+
+import java.util.List;
+
+/**
+ * A cart priced at one version. All amounts are in cents: line totals, the subtotal of the lines, the discount
+ * taken off it, the tax on what remains, and the total to pay.
+ */
+public record PricedCart(long cartId, long version, List<Line> lines,
+                         long subtotalCents, long discountCents, long taxCents, long totalCents) {
+
+    public record Line(Long itemId, long productId, String productName, int quantity,
+                       long unitPriceCents, long lineTotalCents) {}
+}
@@ -0,0 +1,16 @@
+package com.example.ecommerce_app.DTO;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Faceted browse result: the requested page of products plus the counts the filter sidebar shows.
+ * Category counts honour the price band filter and price band counts honour the category filter,
+ * so each facet shows what selecting one of its values would return.
+ */
+public record ProductBrowseResponse(
+        ProductRangePage results,
+        Map<String, Integer> categories,
+        List<PriceBandCount> priceBands
+)
+{}
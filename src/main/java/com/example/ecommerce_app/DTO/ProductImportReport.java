@@ -0,0 +1,18 @@
+package com.example.ecommerce_app.DTO;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk product import. {@code errors} lists rejected rows by their 1-based row number in the
+ * input, up to a configured cap; {@code rejected} counts all of them.
+ */
+public record ProductImportReport(
+        long rowsRead,
+        int created,
+        int updated,
+        long rejected,
+        List<RowError> errors
+)
+{
+    public record RowError(long row, String name, String message) {}
+}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * One product of a bulk import, as read from an NDJSON line or a CSV record. Products are matched by name,
+ * ignoring case; a missing quantity leaves an existing product's stock alone and gives a new one none.
+ */
+public record ProductImportRow(
+        String name,
+        Double price,
+        Integer quantity,
+        String description,
+        String imageURL,
+        String category
+)
+{}
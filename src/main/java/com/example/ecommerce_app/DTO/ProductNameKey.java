@@ -0,0 +1,11 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * The fields a bulk import needs to match an existing product by name and to notice a price change.
+ */
+public record ProductNameKey(
+        long productID,
+        String name,
+        double price
+)
+{}
@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.DTO;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated product listing. {@code nextCursor} is the
+ * last productID on the page and is passed back as {@code after} to fetch
+ * the following page; it is null once the listing is exhausted.
+ */
+public record ProductPage(
+        List<ProductSummary> items,
+        Long nextCursor,
+        boolean hasMore
+)
+{}
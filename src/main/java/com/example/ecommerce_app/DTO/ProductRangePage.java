@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.DTO;
+
+import java.util.List;
+
+/**
+ * One page of products within a price range, cheapest first. {@code total} is the number of
+ * products matching the range (and category, if given) across all pages.
+ */
+public record ProductRangePage(
+        List<ProductSummary> items,
+        int page,
+        int size,
+        int total
+)
+{}
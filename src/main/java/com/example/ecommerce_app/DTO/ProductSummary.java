@@ -0,0 +1,28 @@
+package com.example.ecommerce_app.DTO;
+
+import com.example.ecommerce_app.Model.Product;
+
+/**
+ * Listing view of a product. Leaves out the description so catalog pages
+ * only carry what a product card actually renders.
+ */
+public record ProductSummary(
+        long productID,
+        String name,
+        double price,
+        int quantity,
+        String imageURL,
+        String category
+)
+{
+    public static ProductSummary of(Product product) {
+        return new ProductSummary(
+                product.getProductID(),
+                product.getName(),
+                product.getPrice(),
+                product.getQuantity(),
+                product.getImageURL(),
+                product.getCategory()
+        );
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.ecommerce_app.DTO;
+
+/**
+ * Stock striping state of a product. {@code stripes} is 0 when the product uses its single stock row;
+ * {@code quantity} is the product's total stock at the time of the change.
+ */
+public record StockStripes(
+        long productId,
+        int stripes,
+        int quantity
+)
+{}
@@ -0,0 +1,5 @@
+package com.example.ecommerce_app.Events;
+
+/** Published by {@code OrderService} when an order is moved to a cancelled status. */
+public record OrderCancelledEvent(long orderId) {
+}
@@ -0,0 +1,8 @@
+package com.example.ecommerce_app.Events;
+
+/**
+ * Published by {@code OrderService} just before an order row is deleted, inside the deleting transaction,
+ * so synchronous listeners can remove rows that reference the order first.
+ */
+public record OrderDeletedEvent(long orderId) {
+}
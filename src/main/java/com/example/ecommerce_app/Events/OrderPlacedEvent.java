@@ -0,0 +1,5 @@
+package com.example.ecommerce_app.Events;
+
+/** Published by {@code OrderService} when an order has been placed and its stock reserved. */
+public record OrderPlacedEvent(long orderId, long userId, double totalPrice) {
+}
@@ -0,0 +1,5 @@
+package com.example.ecommerce_app.Events;
+
+/** Published when a payment settles as COMPLETED, whether through the gateway callback or a notification. */
+public record PaymentCompletedEvent(long paymentId, long orderId) {
+}
@@ -0,0 +1,23 @@
+package com.example.ecommerce_app.Events;
+
+import com.example.ecommerce_app.Model.Product;
+
+/**
+ * Published by {@code ProductService} whenever a product is created, updated or deleted.
+ * {@code before} is null for a create and {@code after} is null for a delete. Both are
+ * detached copies, so listeners can read them after the transaction has finished.
+ */
+public record ProductChangedEvent(long productId, Product before, Product after) {
+
+    public static ProductChangedEvent created(Product after) {
+        return new ProductChangedEvent(after.getProductID(), null, Product.copyOf(after));
+    }
+
+    public static ProductChangedEvent updated(Product before, Product after) {
+        return new ProductChangedEvent(after.getProductID(), before, Product.copyOf(after));
+    }
+
+    public static ProductChangedEvent deleted(Product before) {
+        return new ProductChangedEvent(before.getProductID(), before, null);
+    }
+}
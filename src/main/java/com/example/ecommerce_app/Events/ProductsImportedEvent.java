@@ -0,0 +1,9 @@
+package com.example.ecommerce_app.Events;
+
+/**
+ * Published once by {@code ProductImportService} after a bulk import has written products, in place of a
+ * {@link ProductChangedEvent} per product: listeners rebuild or drop what depends on the catalog as a whole.
+ * {@code pricesChanged} is true if any existing product got a new price.
+ */
+public record ProductsImportedEvent(int created, int updated, boolean pricesChanged) {
+}
@@ -0,0 +1,11 @@
+package com.example.ecommerce_app.Events;
+
+import java.util.Map;
+
+/** Published by {@code InventoryService} once an order's stock is held; {@code quantities} maps productID to units. */
+public record StockReservedEvent(long orderId, Map<Long, Integer> quantities) {
+
+    public StockReservedEvent {
+        quantities = Map.copyOf(quantities);
+    }
+}
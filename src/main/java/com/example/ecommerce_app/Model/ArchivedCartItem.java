@@ -0,0 +1,40 @@
+package com.example.ecommerce_app.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * An item of a cart that was deleted by the abandoned-cart sweep, kept for follow-up and reporting.
+ * Rows are written only in bulk from {@code cart_items} and hold ids rather than references, so archived
+ * rows never hold back deleting the carts, users or products they came from.
+ */
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "archived_cart_items", indexes = @Index(name = "idx_archived_cart_user", columnList = "user_id"))
+public class ArchivedCartItem {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "cart_id", nullable = false)
+    private long cartId;
+
+    @Column(name = "user_id", nullable = false)
+    private long userId;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Column(name = "last_modified_at")
+    private LocalDateTime lastModifiedAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
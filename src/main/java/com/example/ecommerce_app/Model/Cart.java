@@ -5,13 +5,14 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @NoArgsConstructor
 @Data
 @Entity
-@Table(name = "carts")
+@Table(name = "carts", indexes = @Index(name = "idx_carts_updated_at", columnList = "updated_at"))
 public class Cart {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -25,6 +26,17 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<CartItem> items = new ArrayList<>();
 
+    // Version stamp for memoized pricing: bumped by CartRepository.bumpVersion on every change to the cart's
+    // items, never written by the entity itself so a stale copy cannot roll it back
+    @Column(name = "version", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private long version;
+
+    // Last change to the cart or its items, for the abandoned-cart sweep; like version, only set by the database
+    // default on insert and by CartRepository.bumpVersion
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false,
+            columnDefinition = "timestamp default current_timestamp")
+    private LocalDateTime updatedAt;
+
     public Cart(LocalUser user, List<CartItem> items) {
         this.user = user;
         this.items = items;
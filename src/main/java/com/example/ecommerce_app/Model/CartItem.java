@@ -2,8 +2,10 @@ package com.example.ecommerce_app.Model;
 
 import jakarta.persistence.*;
 
+import java.time.LocalDateTime;
+
 @Entity
-@Table(name = "cart_items")
+@Table(name = "cart_items", uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}))
 public class CartItem {
 
     @Id
@@ -21,6 +23,19 @@ public class CartItem {
     @Column(nullable = false)
     private int quantity;
 
+    @Version
+    private Long version;
+
+    // Set on every entity write; the bulk statements in CartItemRepository and the write-behind flush set it themselves
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+
     public Cart getCart() {
         return cart;
     }
@@ -42,6 +57,20 @@ public class CartItem {
         this.quantity = quantity;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+
     public Long getCartItem_id() {
         return cartItem_id;
     }
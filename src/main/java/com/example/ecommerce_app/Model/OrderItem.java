@@ -6,8 +6,10 @@ import jakarta.persistence.*;
 @Entity
 public class OrderItem {
 
+    // Pooled sequence instead of IDENTITY so Hibernate can send an order's items as one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_item_seq")
+    @SequenceGenerator(name = "order_item_seq", sequenceName = "order_item_seq", allocationSize = 50)
     private Long id;
 
     private String productName;
@@ -0,0 +1,57 @@
+package com.example.ecommerce_app.Model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Idempotency record: one row per gateway transaction whose notification has been applied.
+ * A redelivered notification finds its row and is dropped without touching the payment again.
+ */
+@Entity
+@Table(name = "payment_notifications")
+public class ProcessedPaymentNotification implements Persistable<String> {
+
+    @Id
+    @Column(name = "transaction_id", nullable = false, updatable = false)
+    private String transactionId;
+
+    @Column(nullable = false)
+    private String status;
+
+    @Column(name = "processed_at", nullable = false)
+    private LocalDateTime processedAt;
+
+    protected ProcessedPaymentNotification() {
+    }
+
+    public ProcessedPaymentNotification(String transactionId, String status, LocalDateTime processedAt) {
+        this.transactionId = transactionId;
+        this.status = status;
+        this.processedAt = processedAt;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+
+    @Override
+    public String getId() {
+        return transactionId;
+    }
+
+    // Rows are only ever inserted, so save() can skip the select-before-merge an assigned id would otherwise cost
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
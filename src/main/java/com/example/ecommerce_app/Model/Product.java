@@ -53,6 +53,12 @@ public class Product {
 
     }
 
+    public static Product copyOf(Product source) {
+        Product copy = new Product(source.name, source.price, source.quantity, source.description, source.imageURL, source.category);
+        copy.setProductID(source.productID);
+        return copy;
+    }
+
 //    public List<CartItem> getCartItems() {
 //        return cartItems;
 //    }
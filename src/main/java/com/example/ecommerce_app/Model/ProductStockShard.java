@@ -0,0 +1,35 @@
+package com.example.ecommerce_app.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One stripe of a hot product's stock. While a product has stripes, checkouts draw from these rows
+ * instead of {@link Product#getQuantity()}, which is only refreshed with their sum by the reconciler.
+ */
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "product_stock_shards",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"product_id", "shard_no"}))
+public class ProductStockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(name = "shard_no", nullable = false)
+    private int shardNo;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    public ProductStockShard(long productId, int shardNo, int quantity) {
+        this.productId = productId;
+        this.shardNo = shardNo;
+        this.quantity = quantity;
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.ecommerce_app.Model;
+
+public enum ReservationStatus {
+    RESERVED,
+    COMMITTED,
+    RELEASED
+}
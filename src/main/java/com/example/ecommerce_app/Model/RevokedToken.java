@@ -0,0 +1,49 @@
+package com.example.ecommerce_app.Model;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+/**
+ * A revoked token id ({@code jti}) or session id ({@code sid}). Kept only until every token it could
+ * match has expired on its own, after which compaction deletes it.
+ */
+@Entity
+@Table(name = "revoked_tokens")
+public class RevokedToken implements Persistable<String> {
+
+    @Id
+    @Column(name = "token_id", nullable = false, updatable = false)
+    private String tokenId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    protected RevokedToken() {
+    }
+
+    public RevokedToken(String tokenId, Instant expiresAt) {
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getTokenId() {
+        return tokenId;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public String getId() {
+        return tokenId;
+    }
+
+    // Rows are only ever inserted; a second insert of the same id must fail rather than merge
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
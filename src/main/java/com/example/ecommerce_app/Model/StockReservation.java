@@ -0,0 +1,53 @@
+package com.example.ecommerce_app.Model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stock held for an order. The units are already taken off {@link Product#getQuantity()};
+ * a RESERVED row either becomes COMMITTED once the order is paid or is RELEASED (units returned)
+ * when the order is cancelled, deleted or left unpaid past {@code expiresAt}.
+ */
+@NoArgsConstructor
+@Data
+@Entity
+@Table(name = "stock_reservations", indexes = {
+        @Index(name = "idx_reservation_order", columnList = "order_id"),
+        @Index(name = "idx_reservation_status_expiry", columnList = "status, expires_at")
+})
+public class StockReservation {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false)
+    private long orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private long productId;
+
+    @Column(nullable = false)
+    private int quantity;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    public StockReservation(long orderId, long productId, int quantity, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        this.orderId = orderId;
+        this.productId = productId;
+        this.quantity = quantity;
+        this.status = ReservationStatus.RESERVED;
+        this.createdAt = createdAt;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -12,7 +12,7 @@ import java.util.List;
 @Data
 @AllArgsConstructor
 @Entity
-@Table(name = "User_order")
+@Table(name = "User_order", indexes = @Index(name = "idx_order_user_date", columnList = "user_id, orderDate, OrderID"))
 @NoArgsConstructor
 public class UserOrder {
     @Id
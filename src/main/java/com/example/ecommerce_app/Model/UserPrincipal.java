@@ -0,0 +1,38 @@
+package com.example.ecommerce_app.Model;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+
+/**
+ * The caller of an authenticated request, read straight from the identity claims of its access token.
+ * Claims are fixed when the token is issued, so a role change only shows up once the token is refreshed.
+ */
+public record UserPrincipal(long id, String username, String role) {
+
+    public static final String USER_ID_CLAIM = "uid";
+    public static final String ROLE_CLAIM = "role";
+
+    /** Returns null for tokens issued without the identity claims. */
+    public static UserPrincipal fromClaims(Jwt jwt) {
+        Object id = jwt.getClaims().get(USER_ID_CLAIM);
+        if (!(id instanceof Number number)) {
+            return null;
+        }
+        return new UserPrincipal(number.longValue(), jwt.getSubject(), jwt.getClaimAsString(ROLE_CLAIM));
+    }
+
+    public static UserPrincipal of(LocalUser user) {
+        return new UserPrincipal(user.getID(), user.getUsername(), user.getRole());
+    }
+
+    /**
+     * A {@link LocalUser} carrying only the identity fields. Enough for the services to scope queries by
+     * user and to link new carts, orders and payments to it, without loading the user row.
+     */
+    public LocalUser toUserReference() {
+        LocalUser user = new LocalUser();
+        user.setID(id);
+        user.setUsername(username);
+        user.setRole(role);
+        return user;
+    }
+}
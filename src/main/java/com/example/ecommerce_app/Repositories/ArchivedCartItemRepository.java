@@ -0,0 +1,26 @@
+package com.example.ecommerce_app.Repositories;
+
+import com.example.ecommerce_app.Model.ArchivedCartItem;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ArchivedCartItemRepository extends ListCrudRepository<ArchivedCartItem, Long> {
+
+    List<ArchivedCartItem> findByUserId(long userId);
+
+    // Copies the items of the carts that are still stale in one insert-select, without loading them
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into ArchivedCartItem (cartId, userId, productId, quantity, lastModifiedAt, archivedAt) " +
+            "select ci.cart.Id, ci.cart.user.id, ci.product.productID, ci.quantity, ci.updatedAt, :now from CartItem ci " +
+            "where ci.cart.Id in :cartIds and ci.cart.updatedAt < :cutoff")
+    int archiveItemsOfStaleCarts(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff,
+                                 @Param("now") LocalDateTime now);
+}
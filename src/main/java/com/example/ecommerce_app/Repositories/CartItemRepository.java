@@ -1,7 +1,40 @@
 package com.example.ecommerce_app.Repositories;
 
 import com.example.ecommerce_app.Model.CartItem;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 
 public interface CartItemRepository extends ListCrudRepository<CartItem, Long> {
+
+    // Single-statement increment: the database applies it under its own row lock, so concurrent adds never lose updates
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update CartItem ci set ci.quantity = ci.quantity + :quantity, ci.version = ci.version + 1, ci.updatedAt = local datetime " +
+            "where ci.cart.Id = :cartId and ci.product.productID = :productId")
+    int incrementQuantity(@Param("cartId") long cartId, @Param("productId") long productId, @Param("quantity") int quantity);
+
+    // Inserts nothing when the product does not exist; a concurrent insert of the same (cart, product) hits the unique constraint
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("insert into CartItem (cart, product, quantity, version, updatedAt) " +
+            "select c, p, :quantity, 0, local datetime from Cart c, Product p where c.Id = :cartId and p.productID = :productId")
+    int insertItem(@Param("cartId") long cartId, @Param("productId") long productId, @Param("quantity") int quantity);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CartItem ci where ci.cart.Id = :cartId")
+    int deleteByCartId(@Param("cartId") long cartId);
+
+    // Abandoned-cart sweep: the staleness check is repeated so a cart touched since it was picked keeps its items
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from CartItem ci where ci.cart.Id in " +
+            "(select c.Id from Cart c where c.Id in :cartIds and c.updatedAt < :cutoff)")
+    int deleteByStaleCartIds(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
 }
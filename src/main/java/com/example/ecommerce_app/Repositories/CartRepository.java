@@ -1,12 +1,55 @@
 package com.example.ecommerce_app.Repositories;
 
+import com.example.ecommerce_app.DTO.CartExportRow;
 import com.example.ecommerce_app.Model.Cart;
 import com.example.ecommerce_app.Model.LocalUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.ListCrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface CartRepository extends ListCrudRepository<Cart, Long> {
     Optional<Cart> findByUser(LocalUser user);
 
+    // Checkout read: the cart, its items and their products in one query instead of one per item
+    @Query("select distinct c from Cart c left join fetch c.items i left join fetch i.product where c.user = :user")
+    Optional<Cart> findWithItemsAndProductsByUser(@Param("user") LocalUser user);
+
+    // Scalar read straight from the table, bypassing a cart already loaded into the persistence context
+    @Query("select c.version from Cart c where c.Id = :cartId")
+    long findVersionById(@Param("cartId") long cartId);
+
+    // Called after every change to a cart's items, so memoized pricing for the old version is never served again
+    // and the abandoned-cart sweep sees the cart as active
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Cart c set c.version = c.version + 1, c.updatedAt = local datetime where c.Id = :cartId")
+    int bumpVersion(@Param("cartId") long cartId);
+
+    // Analytics export: one row per cart item (or per empty cart), streamed in cart order, fetch-size rows per round trip
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.ecommerce_app.DTO.CartExportRow(c.Id, c.user.id, c.version, c.updatedAt, " +
+            "i.cartItem_id, i.product.productID, i.quantity, i.updatedAt) from Cart c left join c.items i order by c.Id, i.cartItem_id")
+    Stream<CartExportRow> streamExportRows();
+
+    @Query("select c.Id from Cart c where c.updatedAt < :cutoff order by c.updatedAt")
+    List<Long> findIdsByUpdatedAtBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    long countByUpdatedAtBefore(LocalDateTime cutoff);
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Cart c where c.Id in :cartIds and c.updatedAt < :cutoff")
+    int deleteStaleByIds(@Param("cartIds") Collection<Long> cartIds, @Param("cutoff") LocalDateTime cutoff);
 }
@@ -1,7 +1,29 @@
 package com.example.ecommerce_app.Repositories;
 
+import com.example.ecommerce_app.DTO.OrderItemExportRow;
+import com.example.ecommerce_app.DTO.OrderItemSummary;
 import com.example.ecommerce_app.Model.OrderItem;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
+
+    // Items of a whole page of orders in one query
+    @Query("select new com.example.ecommerce_app.DTO.OrderItemSummary(i.order.orderID, i.productName, i.quantity, i.price) " +
+            "from OrderItem i where i.order.orderID in :orderIds order by i.id")
+    List<OrderItemSummary> findSummariesByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    // Analytics export: streamed in id order, fetch-size rows per round trip
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.ecommerce_app.DTO.OrderItemExportRow(i.id, i.order.orderID, i.productName, i.quantity, i.price) " +
+            "from OrderItem i order by i.id")
+    Stream<OrderItemExportRow> streamExportRows();
 }
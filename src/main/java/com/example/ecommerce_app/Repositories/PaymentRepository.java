@@ -1,16 +1,67 @@
 package com.example.ecommerce_app.Repositories;
 
+import com.example.ecommerce_app.DTO.PaymentExportRow;
 import com.example.ecommerce_app.Model.LocalUser;
 import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentStatus;
 import com.example.ecommerce_app.Model.UserOrder;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
     Optional<Payment> findByOrder(UserOrder order);
     List<Payment> findByUser(LocalUser user);
+    Optional<Payment> findByTransactionId(String transactionId);
 
     void deleteByOrder_OrderID(long orderOrderID);
-}
\ No newline at end of file
+
+    boolean existsByOrder_OrderIDAndStatusIn(long orderId, Collection<PaymentStatus> statuses);
+
+    // Locks the pending payments a notification batch is about to settle, so the gateway callback waits for the batch
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Payment p join fetch p.order where p.transactionId in :transactionIds and p.status = :status")
+    List<Payment> findByTransactionIdInAndStatus(@Param("transactionIds") Collection<String> transactionIds,
+                                                 @Param("status") PaymentStatus status);
+
+    // Which of these transaction ids belong to a payment, whatever its status
+    @Query("select p.transactionId from Payment p where p.transactionId in :transactionIds")
+    List<String> findTransactionIdsIn(@Param("transactionIds") Collection<String> transactionIds);
+
+    // Payments left pending past a cutoff, oldest first, for PendingPaymentRecovery
+    @Query("select p from Payment p join fetch p.order where p.status = :status and p.createdAt < :cutoff order by p.createdAt")
+    List<Payment> findByStatusAndCreatedAtBefore(@Param("status") PaymentStatus status,
+                                                 @Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Analytics export: streamed in id order, fetch-size rows per round trip; payments without an order are included
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.ecommerce_app.DTO.PaymentExportRow(p.id, o.orderID, u.id, p.method, p.amount, p.status, " +
+            "p.transactionId, p.createdAt) from Payment p left join p.order o left join p.user u order by p.id")
+    Stream<PaymentExportRow> streamExportRows();
+
+    // Compare-and-set on the status, so the gateway callback and a notification cannot both settle a payment
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.status = :status where p.id = :id and p.status = :expected")
+    int updateStatusIf(@Param("id") long id, @Param("expected") PaymentStatus expected, @Param("status") PaymentStatus status);
+
+    // Set-based variant for a notification batch, whose payments are already locked
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Payment p set p.status = :status where p.id in :ids and p.status = :expected")
+    int updateStatusIn(@Param("ids") Collection<Long> ids, @Param("expected") PaymentStatus expected, @Param("status") PaymentStatus status);
+}
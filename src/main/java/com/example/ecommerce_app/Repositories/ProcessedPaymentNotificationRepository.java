@@ -0,0 +1,7 @@
+package com.example.ecommerce_app.Repositories;
+
+import com.example.ecommerce_app.Model.ProcessedPaymentNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProcessedPaymentNotificationRepository extends JpaRepository<ProcessedPaymentNotification, String> {
+}
@@ -1,12 +1,22 @@
 package com.example.ecommerce_app.Repositories;
 
+import com.example.ecommerce_app.DTO.ProductNameKey;
+import com.example.ecommerce_app.DTO.ProductSummary;
 import com.example.ecommerce_app.Model.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
@@ -19,4 +29,21 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     Optional<Product> findByProductID(@NonNull long productID);
 
     long deleteByProductID(long productID);
+
+    // Keyset page: seeks past the last id the client saw instead of using OFFSET,
+    // so every page costs the same regardless of how deep into the catalog it is.
+    @Query("select new com.example.ecommerce_app.DTO.ProductSummary(p.productID, p.name, p.price, p.quantity, p.imageURL, p.category) " +
+            "from Product p where p.productID > :after order by p.productID asc")
+    List<ProductSummary> findSummariesAfter(@Param("after") long after, Limit limit);
+
+    List<Product> findByProductIDGreaterThanOrderByProductIDAsc(long after, Limit limit);
+
+    @Query("select new com.example.ecommerce_app.DTO.ProductSummary(p.productID, p.name, p.price, p.quantity, p.imageURL, p.category) " +
+            "from Product p where p.productID in :ids")
+    List<ProductSummary> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    // Bulk import: every product's name and price, streamed fetch-size rows per round trip
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.ecommerce_app.DTO.ProductNameKey(p.productID, p.name, p.price) from Product p")
+    Stream<ProductNameKey> streamNameKeys();
 }
@@ -0,0 +1,19 @@
+package com.example.ecommerce_app.Repositories;
+
+import com.example.ecommerce_app.Model.ProductStockShard;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard, Long> {
+
+    // Locks every stripe of a product in stripe order, for draws and merges that span stripes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<ProductStockShard> findByProductIdOrderByShardNoAsc(long productId);
+
+    @Query("select s.productId, count(s) from ProductStockShard s group by s.productId")
+    List<Object[]> countShardsPerProduct();
+}
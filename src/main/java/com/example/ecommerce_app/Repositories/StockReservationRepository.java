@@ -0,0 +1,30 @@
+package com.example.ecommerce_app.Repositories;
+
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.ReservationStatus;
+import com.example.ecommerce_app.Model.StockReservation;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Row locks on one order's reservations keep a cancel and the expiry sweep from both releasing the same units
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<StockReservation> findByOrderIdAndStatus(long orderId, ReservationStatus status);
+
+    // Expired reservations, skipping orders whose payment is in one of paymentStatuses
+    @Query("select distinct r.orderId from StockReservation r where r.status = :status and r.expiresAt < :now " +
+            "and not exists (select p.id from Payment p where p.order.orderID = r.orderId and p.status in :paymentStatuses)")
+    List<Long> findOrderIdsByStatusAndExpiresAtBefore(@Param("status") ReservationStatus status,
+                                                      @Param("now") LocalDateTime now,
+                                                      @Param("paymentStatuses") Collection<PaymentStatus> paymentStatuses,
+                                                      Limit limit);
+}
@@ -1,11 +1,51 @@
 package com.example.ecommerce_app.Repositories;
 
+import com.example.ecommerce_app.DTO.OrderExportRow;
+import com.example.ecommerce_app.DTO.OrderSummary;
 import com.example.ecommerce_app.Model.UserOrder;
 import com.example.ecommerce_app.Model.LocalUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface UserOrderRepository extends JpaRepository<UserOrder, Long> {
     List<UserOrder> findByUser(LocalUser user);
     List<UserOrder> findByUserAndStatus(LocalUser user, String status);
+
+    // Order history: newest first, keyset on (orderDate, orderID) so deep pages cost the same as the first.
+    // Projects straight into DTOs, so neither the user nor the item entities are loaded.
+    @Query("select new com.example.ecommerce_app.DTO.OrderSummary(o.orderID, o.orderDate, o.status, o.totalPrice) " +
+            "from UserOrder o where o.user.id = :userId and (:status is null or o.status = :status) " +
+            "order by o.orderDate desc, o.orderID desc")
+    List<OrderSummary> findSummariesByUser(@Param("userId") long userId, @Param("status") String status, Limit limit);
+
+    @Query("select new com.example.ecommerce_app.DTO.OrderSummary(o.orderID, o.orderDate, o.status, o.totalPrice) " +
+            "from UserOrder o where o.user.id = :userId and (:status is null or o.status = :status) " +
+            "and (o.orderDate < :before or (o.orderDate = :before and o.orderID < :beforeId)) " +
+            "order by o.orderDate desc, o.orderID desc")
+    List<OrderSummary> findSummariesByUserBefore(@Param("userId") long userId, @Param("status") String status,
+                                                 @Param("before") LocalDateTime before, @Param("beforeId") long beforeId,
+                                                 Limit limit);
+
+    // Analytics export: streamed in id order, fetch-size rows per round trip
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select new com.example.ecommerce_app.DTO.OrderExportRow(o.orderID, o.user.id, o.status, o.totalPrice, o.orderDate) " +
+            "from UserOrder o order by o.orderID")
+    Stream<OrderExportRow> streamExportRows();
+
+    @Transactional
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update UserOrder o set o.status = :status where o.orderID in :ids and o.status = :expected")
+    int updateStatusIn(@Param("ids") Collection<Long> ids, @Param("expected") String expected, @Param("status") String status);
 }
@@ -0,0 +1,128 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Repositories.ArchivedCartItemRepository;
+import com.example.ecommerce_app.Repositories.CartItemRepository;
+import com.example.ecommerce_app.Repositories.CartRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes carts nobody has touched for {@code cart.sweeper.abandoned-after}, after copying their items to
+ * {@code archived_cart_items}. Each chunk of at most {@code chunk-size} carts is one transaction of three bulk
+ * statements (archive, delete items, delete carts), so no cart is loaded and a failed chunk leaves the
+ * carts as they were for the next run. A run stops after {@code max-chunks-per-run} chunks; the rest waits.
+ * <p>
+ * Progress is published as {@code cart.sweeper.carts.deleted} and {@code cart.sweeper.items.archived}, counted
+ * as each chunk commits, {@code cart.sweeper.run} for run durations and {@code cart.sweeper.backlog}, the
+ * stale carts left when a run stopped early.
+ */
+@Service
+public class AbandonedCartSweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(AbandonedCartSweeper.class);
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ArchivedCartItemRepository archiveRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration abandonedAfter;
+    private final int chunkSize;
+    private final int maxChunksPerRun;
+    private final Clock clock;
+    private final Counter cartsDeleted;
+    private final Counter itemsArchived;
+    private final Timer runTimer;
+    private final AtomicLong backlog = new AtomicLong();
+
+    @Autowired
+    public AbandonedCartSweeper(CartRepository cartRepository,
+                                CartItemRepository cartItemRepository,
+                                ArchivedCartItemRepository archiveRepository,
+                                TransactionTemplate transactionTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${cart.sweeper.abandoned-after:P30D}") Duration abandonedAfter,
+                                @Value("${cart.sweeper.chunk-size:500}") int chunkSize,
+                                @Value("${cart.sweeper.max-chunks-per-run:100}") int maxChunksPerRun) {
+        this(cartRepository, cartItemRepository, archiveRepository, transactionTemplate, meterRegistry,
+                abandonedAfter, chunkSize, maxChunksPerRun, Clock.systemDefaultZone());
+    }
+
+    AbandonedCartSweeper(CartRepository cartRepository, CartItemRepository cartItemRepository,
+                         ArchivedCartItemRepository archiveRepository, TransactionTemplate transactionTemplate,
+                         MeterRegistry meterRegistry, Duration abandonedAfter, int chunkSize, int maxChunksPerRun, Clock clock) {
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.archiveRepository = archiveRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.abandonedAfter = abandonedAfter;
+        this.chunkSize = chunkSize;
+        this.maxChunksPerRun = maxChunksPerRun;
+        this.clock = clock;
+        this.cartsDeleted = Counter.builder("cart.sweeper.carts.deleted")
+                .description("Abandoned carts deleted by the sweeper")
+                .register(meterRegistry);
+        this.itemsArchived = Counter.builder("cart.sweeper.items.archived")
+                .description("Items of abandoned carts copied to the archive")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("cart.sweeper.run")
+                .description("Duration of abandoned-cart sweeps")
+                .register(meterRegistry);
+        Gauge.builder("cart.sweeper.backlog", backlog, AtomicLong::get)
+                .description("Abandoned carts left for later runs when the last run stopped early")
+                .register(meterRegistry);
+    }
+
+    /** Runs one sweep and returns how many carts it deleted. */
+    @Scheduled(fixedDelayString = "${cart.sweeper.interval:PT1H}", initialDelayString = "${cart.sweeper.interval:PT1H}")
+    public int sweep() {
+        return runTimer.record(() -> {
+            LocalDateTime cutoff = LocalDateTime.now(clock).minus(abandonedAfter);
+            int deleted = 0;
+            int chunks = 0;
+            boolean more = true;
+            while (more && chunks < maxChunksPerRun) {
+                Chunk chunk = transactionTemplate.execute(status -> sweepChunk(cutoff));
+                itemsArchived.increment(chunk.itemsArchived());
+                cartsDeleted.increment(chunk.cartsDeleted());
+                deleted += chunk.cartsDeleted();
+                chunks++;
+                more = chunk.candidates() == chunkSize;
+            }
+            backlog.set(more ? cartRepository.countByUpdatedAtBefore(cutoff) : 0);
+            if (deleted > 0) {
+                log.info("Swept {} abandoned carts untouched since {} in {} chunks{}", deleted, cutoff, chunks,
+                        more ? ", " + backlog.get() + " left for the next run" : "");
+            }
+            return deleted;
+        });
+    }
+
+    private record Chunk(int candidates, int itemsArchived, int cartsDeleted) {}
+
+    private Chunk sweepChunk(LocalDateTime cutoff) {
+        List<Long> cartIds = cartRepository.findIdsByUpdatedAtBefore(cutoff, Limit.of(chunkSize));
+        if (cartIds.isEmpty()) {
+            return new Chunk(0, 0, 0);
+        }
+        int archived = archiveRepository.archiveItemsOfStaleCarts(cartIds, cutoff, LocalDateTime.now(clock));
+        cartItemRepository.deleteByStaleCartIds(cartIds, cutoff);
+        int deleted = cartRepository.deleteStaleByIds(cartIds, cutoff);
+        return new Chunk(cartIds.size(), archived, deleted);
+    }
+}
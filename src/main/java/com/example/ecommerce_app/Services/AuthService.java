@@ -5,27 +5,100 @@ import com.example.ecommerce_app.DTO.AuthResponse;
 import com.example.ecommerce_app.DTO.UserAuthResponse;
 import com.example.ecommerce_app.Model.AuthUser;
 import com.example.ecommerce_app.Model.LocalUser;
-import lombok.RequiredArgsConstructor;
+import com.example.ecommerce_app.Model.UserPrincipal;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.stereotype.Service;
 
 @Service
-@RequiredArgsConstructor
 public class AuthService {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenService jwtTokenService;
     private final UserService userService;
+    private final JwtDecoder refreshTokenDecoder;
+    private final TokenRevocationList revocations;
+
+    public AuthService(AuthenticationManager authenticationManager,
+                       JwtTokenService jwtTokenService,
+                       UserService userService,
+                       @Qualifier("refreshTokenDecoder") JwtDecoder refreshTokenDecoder,
+                       TokenRevocationList revocations) {
+        this.authenticationManager = authenticationManager;
+        this.jwtTokenService = jwtTokenService;
+        this.userService = userService;
+        this.refreshTokenDecoder = refreshTokenDecoder;
+        this.revocations = revocations;
+    }
 
     public AuthResponse authenticate(AuthRequest authRequest) {
         var token = new UsernamePasswordAuthenticationToken(authRequest.getUsername(), authRequest.getPassword());
         Authentication authentication = authenticationManager.authenticate(token);
+        return issueToken(authentication);
+    }
+
+    /**
+     * Issues a token for a user whose password the caller has just verified (a login or a registration),
+     * so the password is hashed once per request rather than again by the authentication manager.
+     */
+    public AuthResponse issueToken(LocalUser user) {
+        return issueToken(authenticated(user));
+    }
+
+    /**
+     * Exchanges a refresh token for a new access and refresh token in the same session. Each refresh token is
+     * good for one exchange: presenting it again means it was copied, so the whole session is revoked.
+     * Throws {@link JwtException} for tokens that are invalid, expired, already used or of a revoked session.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        Jwt jwt = refreshTokenDecoder.decode(refreshToken);
+        String sessionId = jwt.getClaimAsString(JwtTokenService.SESSION_CLAIM);
+        if (sessionId == null || jwt.getId() == null) {
+            throw new BadJwtException("Refresh token carries no session");
+        }
+        if (revocations.isRevoked(sessionId)) {
+            throw new BadJwtException("Session has been revoked");
+        }
+        if (!revocations.revoke(jwt.getId(), jwt.getExpiresAt())) {
+            revocations.revoke(sessionId, jwtTokenService.sessionExpiryBound());
+            throw new BadJwtException("Refresh token has already been used");
+        }
+        // Re-read the user so a role change or a deleted account takes effect at the next refresh
+        LocalUser user = userService.getUserByUsername(jwt.getSubject())
+                .orElseThrow(() -> new BadJwtException("User no longer exists"));
+        return issueToken(authenticated(user), sessionId);
+    }
+
+    /** Revokes the session of the caller's access token, together with every token issued in it. */
+    public void logout(Authentication authentication) {
+        Jwt jwt = (Jwt) authentication.getPrincipal();
+        String sessionId = jwt.getClaimAsString(JwtTokenService.SESSION_CLAIM);
+        if (sessionId != null) {
+            revocations.revoke(sessionId, jwtTokenService.sessionExpiryBound());
+        } else if (jwt.getId() != null) {
+            revocations.revoke(jwt.getId(), jwt.getExpiresAt());
+        }
+    }
+
+    private static Authentication authenticated(LocalUser user) {
+        AuthUser authUser = new AuthUser(user);
+        return UsernamePasswordAuthenticationToken.authenticated(authUser, null, authUser.getAuthorities());
+    }
+
+    private AuthResponse issueToken(Authentication authentication) {
+        return issueToken(authentication, jwtTokenService.newSessionId());
+    }
 
-        String jwtToken = jwtTokenService.generateToken(authentication);
+    private AuthResponse issueToken(Authentication authentication, String sessionId) {
+        String jwtToken = jwtTokenService.generateToken(authentication, sessionId);
+        String refreshToken = jwtTokenService.generateRefreshToken(authentication, sessionId);
         Long expiresAt = jwtTokenService.extractExpirationTime(jwtToken);
 
         AuthUser authUser = (AuthUser) authentication.getPrincipal();
@@ -40,14 +113,28 @@ public class AuthService {
                 user.getRole()
         );
 
-        return new AuthResponse(jwtToken, userAuthResponse, expiresAt);
+        return new AuthResponse(jwtToken, userAuthResponse, expiresAt, refreshToken);
     }
 
-    public LocalUser getUserFromAuthentication(Authentication authentication) {
+    /** The caller, from the token's identity claims; tokens issued without them fall back to a user lookup. */
+    public UserPrincipal getPrincipal(Authentication authentication) {
         Jwt jwt = (Jwt) authentication.getPrincipal();
+        UserPrincipal principal = UserPrincipal.fromClaims(jwt);
+        if (principal != null) {
+            return principal;
+        }
         String username = jwt.getSubject();
         return userService.getUserByUsername(username)
+                .map(UserPrincipal::of)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username: " + username));
     }
 
+    /**
+     * The caller as a {@link LocalUser} reference holding only its id, username and role. Controllers pass it to
+     * services that scope by user or link new rows to it; it is not loaded from the database.
+     */
+    public LocalUser getUserFromAuthentication(Authentication authentication) {
+        return getPrincipal(authentication).toUserReference();
+    }
+
 }
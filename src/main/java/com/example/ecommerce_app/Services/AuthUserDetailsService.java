@@ -1,16 +1,18 @@
 package com.example.ecommerce_app.Services;
 
 import com.example.ecommerce_app.Model.AuthUser;
+import com.example.ecommerce_app.Model.LocalUser;
 import com.example.ecommerce_app.Repositories.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
-public class AuthUserDetailsService implements UserDetailsService {
+public class AuthUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
 
@@ -21,4 +23,12 @@ public class AuthUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    // Called by the authentication manager after a successful login whose stored hash needs upgrading
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        LocalUser localUser = ((AuthUser) user).getUser();
+        localUser.setPassword(newPassword);
+        return new AuthUser(userRepository.save(localUser));
+    }
+
 }
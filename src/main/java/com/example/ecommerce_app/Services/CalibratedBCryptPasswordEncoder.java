@@ -0,0 +1,101 @@
+package com.example.ecommerce_app.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * BCrypt at a deployment-chosen cost. {@link #upgradeEncoding} reports stored hashes of a lower cost, so
+ * raising the cost migrates hashes on each user's next successful login. Hashes of a higher cost are kept
+ * unless downgrades are explicitly allowed, so nodes that disagree on the cost cannot rehash back and forth.
+ * {@link #calibrate} suggests a cost for this machine; it is meant for choosing the value to pin.
+ */
+public class CalibratedBCryptPasswordEncoder extends BCryptPasswordEncoder {
+
+    private static final Logger log = LoggerFactory.getLogger(CalibratedBCryptPasswordEncoder.class);
+    private static final String PROBE = "calibration-probe";
+
+    private final int strength;
+    private final boolean allowDowngrade;
+
+    public CalibratedBCryptPasswordEncoder(int strength) {
+        this(strength, false);
+    }
+
+    public CalibratedBCryptPasswordEncoder(int strength, boolean allowDowngrade) {
+        super(strength);
+        this.strength = strength;
+        this.allowDowngrade = allowDowngrade;
+    }
+
+    /**
+     * Writes {@code {bcrypt}}-prefixed hashes at {@code strength}. Unprefixed hashes, as stored before ids
+     * were introduced, still verify and report {@code upgradeEncoding}, as does a hash of a lower cost (or of
+     * a higher one, with {@code allowDowngrade}).
+     */
+    public static DelegatingPasswordEncoder delegating(int strength) {
+        return delegating(strength, false);
+    }
+
+    public static DelegatingPasswordEncoder delegating(int strength, boolean allowDowngrade) {
+        var encoder = new DelegatingPasswordEncoder("bcrypt",
+                Map.of("bcrypt", new CalibratedBCryptPasswordEncoder(strength, allowDowngrade)));
+        encoder.setDefaultPasswordEncoderForMatches(new BCryptPasswordEncoder());
+        return encoder;
+    }
+
+    public int getStrength() {
+        return strength;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.isEmpty()) {
+            return false;
+        }
+        int cost = costOf(encodedPassword);
+        return cost < strength || (allowDowngrade && cost > strength);
+    }
+
+    /**
+     * Times a verification at {@code minStrength} and doubles from there (each cost step doubles the work)
+     * while the estimate stays within {@code targetLatency}; the result is clamped to [minStrength, maxStrength].
+     * Timings vary between machines and boots, so the result is a recommendation to pin, not a stable cost.
+     */
+    public static int calibrate(Duration targetLatency, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder probe = new BCryptPasswordEncoder(minStrength);
+        String hash = probe.encode(PROBE);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < 3; i++) {
+            long began = System.nanoTime();
+            probe.matches(PROBE, hash);
+            fastest = Math.min(fastest, System.nanoTime() - began);
+        }
+
+        int strength = minStrength;
+        long estimate = fastest;
+        while (strength < maxStrength && estimate * 2 <= targetLatency.toNanos()) {
+            strength++;
+            estimate *= 2;
+        }
+        log.info("Calibrated BCrypt cost to {} (about {} ms per verification, target {} ms); pin it with "
+                + "security.password.bcrypt.strength on every node", strength, estimate / 1_000_000, targetLatency.toMillis());
+        return strength;
+    }
+
+    // Modular crypt format: $2a$10$<salt+hash>
+    static int costOf(String encodedPassword) {
+        if (encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$' || encodedPassword.charAt(3) != '$') {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.PricedCart;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Events.ProductsImportedEvent;
+import com.example.ecommerce_app.Model.CartItem;
+import com.example.ecommerce_app.Model.Product;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Prices carts in whole cents: line totals, subtotal, a percentage discount above a minimum subtotal, and tax
+ * on the discounted amount, each rounded half-up once. A cart's pricing is memoized per cart and reused
+ * for as long as the cart's version stamp and the catalog's prices are unchanged, so re-rendering a cart or
+ * checking it out does not even load its items again.
+ * <p>
+ * Every cart mutation bumps {@code carts.version}. Price changes bump a price epoch held here, which
+ * retires every memoized cart at once; they are rare next to cart reads. Price changes made on another node
+ * are not seen here, so memo entries also expire after {@code pricing.memo.ttl}, as the catalog caches do.
+ */
+@Service
+public class CartPricingEngine {
+
+    private final long taxRateBps;
+    private final long discountRateBps;
+    private final long discountMinSubtotalCents;
+    private final Cache<Long, Memo> memo;
+    private final AtomicLong priceEpoch = new AtomicLong();
+
+    private record Memo(long version, long priceEpoch, PricedCart priced) {}
+
+    public CartPricingEngine(@Value("${pricing.tax.rate-bps:0}") long taxRateBps,
+                             @Value("${pricing.discount.rate-bps:0}") long discountRateBps,
+                             @Value("${pricing.discount.min-subtotal-cents:0}") long discountMinSubtotalCents,
+                             @Value("${pricing.memo.max-size:10000}") long memoSize,
+                             @Value("${pricing.memo.ttl:PT10M}") Duration memoTtl) {
+        this.taxRateBps = taxRateBps;
+        this.discountRateBps = discountRateBps;
+        this.discountMinSubtotalCents = discountMinSubtotalCents;
+        this.memo = Caffeine.newBuilder().maximumSize(memoSize).expireAfterWrite(memoTtl).build();
+    }
+
+    /**
+     * The cart's pricing at {@code version}, from the memo when it is current; otherwise {@code items} is asked
+     * for the cart's contents, which are priced and memoized.
+     */
+    public PricedCart price(long cartId, long version, Supplier<? extends Collection<CartItem>> items) {
+        long epoch = priceEpoch.get();
+        Memo cached = memo.getIfPresent(cartId);
+        if (cached != null && cached.version() == version && cached.priceEpoch() == epoch) {
+            return cached.priced();
+        }
+        PricedCart priced = compute(cartId, version, items.get());
+        memo.put(cartId, new Memo(version, epoch, priced));
+        return priced;
+    }
+
+    /** Prices items that are not (or no longer) a stored cart; nothing is memoized. */
+    public PricedCart price(Collection<CartItem> items) {
+        return compute(0, 0, items);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        Product before = event.before();
+        Product after = event.after();
+        // A new product is in no cart yet; anything else that moves a price makes every memo suspect
+        if (before != null && (after == null || toCents(before.getPrice()) != toCents(after.getPrice()))) {
+            priceEpoch.incrementAndGet();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        if (event.pricesChanged()) {
+            priceEpoch.incrementAndGet();
+        }
+    }
+
+    public static long toCents(double amount) {
+        return BigDecimal.valueOf(amount).movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    public static double toAmount(long cents) {
+        return BigDecimal.valueOf(cents, 2).doubleValue();
+    }
+
+    private PricedCart compute(long cartId, long version, Collection<CartItem> items) {
+        List<PricedCart.Line> lines = new ArrayList<>(items.size());
+        long subtotal = 0;
+        for (CartItem item : items) {
+            Product product = item.getProduct();
+            long unitPrice = toCents(product.getPrice());
+            long lineTotal = Math.multiplyExact(unitPrice, item.getQuantity());
+            lines.add(new PricedCart.Line(item.getCartItem_id(), product.getProductID(), product.getName(),
+                    item.getQuantity(), unitPrice, lineTotal));
+            subtotal = Math.addExact(subtotal, lineTotal);
+        }
+        long discount = discountRateBps > 0 && subtotal >= discountMinSubtotalCents ? share(subtotal, discountRateBps) : 0;
+        long tax = share(subtotal - discount, taxRateBps);
+        return new PricedCart(cartId, version, List.copyOf(lines), subtotal, discount, tax, subtotal - discount + tax);
+    }
+
+    // amount * bps / 10000, rounded half-up
+    private static long share(long amountCents, long bps) {
+        return Math.addExact(Math.multiplyExact(amountCents, bps), 5_000) / 10_000;
+    }
+}
@@ -2,32 +2,37 @@ package com.example.ecommerce_app.Services;
 
 import com.example.ecommerce_app.DTO.CartItemResponse;
 import com.example.ecommerce_app.DTO.CartResponse;
+import com.example.ecommerce_app.DTO.PricedCart;
 import com.example.ecommerce_app.Model.Cart;
 import com.example.ecommerce_app.Model.CartItem;
 import com.example.ecommerce_app.Model.LocalUser;
-import com.example.ecommerce_app.Model.Product;
 import com.example.ecommerce_app.Repositories.CartItemRepository;
 import com.example.ecommerce_app.Repositories.CartRepository;
-import com.example.ecommerce_app.Repositories.ProductRepository;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.transaction.Transactional;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @Service
 @Transactional
 public class CartService {
 
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
-    private final ProductRepository productRepository;
+    private final CartPricingEngine pricingEngine;
+    private final CartWriteBehindBuffer writeBehind;
 
-    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository, ProductRepository productRepository) {
+    public CartService(CartRepository cartRepository, CartItemRepository cartItemRepository, CartPricingEngine pricingEngine,
+                       CartWriteBehindBuffer writeBehind) {
         this.cartRepository = cartRepository;
         this.cartItemRepository = cartItemRepository;
-        this.productRepository = productRepository;
+        this.pricingEngine = pricingEngine;
+        this.writeBehind = writeBehind;
     }
 
     public CartItemResponse mapToResponse(CartItem cartItem) {
@@ -37,19 +42,41 @@ public class CartService {
         response.setProductName(cartItem.getProduct().getName());
         response.setPrice(cartItem.getProduct().getPrice());
         response.setQuantity(cartItem.getQuantity());
+        response.setLineTotalCents(Math.multiplyExact(CartPricingEngine.toCents(cartItem.getProduct().getPrice()), cartItem.getQuantity()));
         return response;
     }
 
+    // Served from the pricing memo while the cart's version is unchanged, in which case its items are not loaded at all.
+    // Quantity edits still waiting in the write-behind buffer have not bumped the version, so such a cart is priced afresh.
     public CartResponse mapToDTO(Cart cart) {
+        Map<Long, Integer> pending = writeBehind.pendingQuantities(cart.getId());
+        PricedCart priced = pending.isEmpty()
+                ? pricingEngine.price(cart.getId(), cart.getVersion(), cart::getItems)
+                : pricingEngine.price(cart.getItems().stream().map(item -> withPendingQuantity(item, pending)).toList());
         CartResponse cartResponse = new CartResponse();
         cartResponse.setUserId(cart.getUser().getID());
         cartResponse.setId(cart.getId());
-        cartResponse.setItems(cart.getItems().stream()
+        cartResponse.setItems(priced.lines().stream()
                 .map(this::mapToResponse)
                 .toList());
+        cartResponse.setSubtotalCents(priced.subtotalCents());
+        cartResponse.setDiscountCents(priced.discountCents());
+        cartResponse.setTaxCents(priced.taxCents());
+        cartResponse.setTotalCents(priced.totalCents());
         return cartResponse;
     }
 
+    private CartItemResponse mapToResponse(PricedCart.Line line) {
+        CartItemResponse response = new CartItemResponse();
+        response.setId(line.itemId());
+        response.setProductId(line.productId());
+        response.setProductName(line.productName());
+        response.setPrice(CartPricingEngine.toAmount(line.unitPriceCents()));
+        response.setQuantity(line.quantity());
+        response.setLineTotalCents(line.lineTotalCents());
+        return response;
+    }
+
     public List<Cart> getAllCarts() {
         return cartRepository.findAll();
     }
@@ -63,38 +90,53 @@ public class CartService {
                 });
     }
 
+    // Upserts the (cart, product) row with single statements instead of loading and rewriting the cart.
+    // Runs without a transaction of its own so each statement commits on its own and a lost insert race can be retried.
+    @Transactional(Transactional.TxType.SUPPORTS)
     public Cart addItemToCart(LocalUser user, Long productId, int quantity) {
         Cart cart = getCartByUser(user);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new EntityNotFoundException("Product not found with id " + productId));
-
-        Optional<CartItem> existingItemOpt = cart.getItems().stream()
-                .filter(item -> item.getProduct().getProductID() == productId)
-                .findFirst();
-
-        if(existingItemOpt.isPresent()) {
-            CartItem existingItem = existingItemOpt.get();
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setProduct(product);
-            newItem.setQuantity(quantity);
-            newItem.setCart(cart);
-            cart.getItems().add(newItem);
+        // The increment must apply to the latest quantity, not one a later flush would overwrite
+        writeBehind.flush(cart.getId());
+
+        for (int attempt = 1; ; attempt++) {
+            if (cartItemRepository.incrementQuantity(cart.getId(), productId, quantity) > 0) {
+                break;
+            }
+            try {
+                if (cartItemRepository.insertItem(cart.getId(), productId, quantity) == 0) {
+                    throw new EntityNotFoundException("Product not found with id " + productId);
+                }
+                break;
+            } catch (DataIntegrityViolationException e) {
+                // A concurrent add inserted the same product first, so the row exists now and the next increment hits it
+                if (attempt >= MAX_UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
         }
-        return cartRepository.save(cart);
+        cartRepository.bumpVersion(cart.getId());
+        return cartRepository.findByUser(user).orElse(cart);
     }
 
     public CartItem getItemDetails(Long id) {
-        return cartItemRepository.findById(id)
+        CartItem item = cartItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Cart item not found with id " + id));
+        return withPendingQuantity(item, writeBehind.pendingQuantities(item.getCart().getId()));
     }
 
+    // In write-behind mode the edit is only buffered; the returned copy carries the new quantity without
+    // dirtying the managed item, which would otherwise be written by this transaction after all
     public CartItem updateItem(Long id, int quantity) {
         CartItem item = cartItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Cart item not found with id " + id));
+        if (writeBehind.isEnabled()) {
+            writeBehind.recordQuantity(item.getCart().getId(), id, quantity);
+            return copyWithQuantity(item, quantity);
+        }
         item.setQuantity(quantity);
-        return cartItemRepository.save(item);
+        CartItem saved = cartItemRepository.save(item);
+        cartRepository.bumpVersion(item.getCart().getId());
+        return saved;
     }
 
 
@@ -102,15 +144,34 @@ public class CartService {
         CartItem item = cartItemRepository.findById(id)
                 .orElseThrow(() -> new EntityNotFoundException("Cart item not found with id " + id));
         Cart cart = item.getCart();
+        writeBehind.discard(cart.getId(), id);
         cart.getItems().remove(item);
         cartItemRepository.delete(item);
         cartRepository.save(cart);
+        cartRepository.bumpVersion(cart.getId());
     }
 
     public void clearCart(LocalUser user) {
         Cart cart = cartRepository.findByUser(user)
                 .orElseThrow(() -> new EntityNotFoundException("Cart not found for user " + user.getID()));
+        writeBehind.discard(cart.getId(), null);
         cart.getItems().clear();
         cartRepository.save(cart);
+        cartRepository.bumpVersion(cart.getId());
+    }
+
+    private static CartItem withPendingQuantity(CartItem item, Map<Long, Integer> pending) {
+        Integer quantity = pending.get(item.getCartItem_id());
+        return quantity == null ? item : copyWithQuantity(item, quantity);
+    }
+
+    private static CartItem copyWithQuantity(CartItem item, int quantity) {
+        CartItem copy = new CartItem();
+        copy.setCartItem_id(item.getCartItem_id());
+        copy.setCart(item.getCart());
+        copy.setProduct(item.getProduct());
+        copy.setVersion(item.getVersion());
+        copy.setQuantity(quantity);
+        return copy;
     }
 }
@@ -0,0 +1,368 @@
+package com.example.ecommerce_app.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind storage for cart item quantities, enabled with {@code cart.storage.mode=write-behind}.
+ * A quantity edit is appended to a local journal file and kept in memory; a scheduled flush writes the
+ * latest quantity of every edited item in one JDBC batch and transaction, however many edits it coalesces,
+ * and then rewrites the journal with only what is still pending. On startup the journal is replayed, so
+ * edits acknowledged before a crash are flushed after it.
+ * <p>
+ * Edits of one cart are serialized on one of a fixed set of lock stripes; readers overlay pending
+ * quantities on what they load. Structural changes are not buffered: adding items and checking out flush
+ * the cart first, removing items drops their pending edits.
+ * <p>
+ * Pending edits live only on the node that took them, so this mode requires sticky routing per cart: every
+ * request for a cart, reads and checkout included, must reach the same node. Elsewhere a read shows, and a
+ * checkout charges, the old quantities, and the later flush targets items a checkout there already removed.
+ */
+@Service
+public class CartWriteBehindBuffer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(CartWriteBehindBuffer.class);
+
+    private static final String UPDATE_ITEM_SQL =
+            "update cart_items set quantity = ?, version = version + 1, updated_at = localtimestamp where cart_item_id = ? and cart_id = ?";
+    private static final String BUMP_CART_SQL = "update carts set version = version + 1, updated_at = localtimestamp where cart_id = ?";
+    // Journal quantity of a line marking the item's earlier edits as already in the database
+    private static final String FLUSHED = "-";
+
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] stripes;
+    private final Map<Long, Map<Long, Integer>> pending = new ConcurrentHashMap<>();
+    private final Object flushLock = new Object();
+    private final Object journalLock = new Object();
+    private final Path journalPath;
+    private final boolean syncJournal;
+    // Edits drained from pending whose batch has not committed yet; moved here under the cart's stripe lock so
+    // pendingQuantities always finds an acknowledged edit in one map or the other
+    private final Map<Long, Map<Long, Integer>> inFlight = new ConcurrentHashMap<>();
+    private FileChannel journal;
+
+    public CartWriteBehindBuffer(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${cart.storage.mode:direct}") String mode,
+                                 @Value("${cart.write-behind.journal:data/cart-write-behind.journal}") Path journalPath,
+                                 @Value("${cart.write-behind.journal-sync:true}") boolean syncJournal,
+                                 @Value("${cart.write-behind.lock-stripes:64}") int lockStripes) {
+        this.enabled = "write-behind".equalsIgnoreCase(mode);
+        this.jdbcTemplate = jdbcTemplate;
+        // Flushes commit on their own, so a caller's rollback cannot undo edits already dropped from the journal
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journalPath = journalPath;
+        this.syncJournal = syncJournal;
+        this.stripes = new ReentrantLock[lockStripes];
+        for (int i = 0; i < lockStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        if (enabled) {
+            openJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Records the item's new quantity; it is durable once this returns and reaches the database on the next flush. */
+    public void recordQuantity(long cartId, long itemId, int quantity) {
+        ReentrantLock lock = stripe(cartId);
+        lock.lock();
+        try {
+            synchronized (journalLock) {
+                append(cartId + " " + itemId + " " + quantity + "\n");
+                pending.computeIfAbsent(cartId, id -> new ConcurrentHashMap<>()).put(itemId, quantity);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Item id to quantity for the cart's edits that have not reached the database yet. */
+    public Map<Long, Integer> pendingQuantities(long cartId) {
+        if (!enabled) {
+            return Map.of();
+        }
+        ReentrantLock lock = stripe(cartId);
+        lock.lock();
+        try {
+            Map<Long, Integer> quantities = new HashMap<>(inFlight.getOrDefault(cartId, Map.of()));
+            quantities.putAll(pending.getOrDefault(cartId, Map.of()));
+            return quantities;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Drops pending edits of an item that is being deleted, or of the whole cart if {@code itemId} is null. */
+    public void discard(long cartId, Long itemId) {
+        if (!enabled) {
+            return;
+        }
+        ReentrantLock lock = stripe(cartId);
+        lock.lock();
+        try {
+            Map<Long, Integer> quantities = pending.get(cartId);
+            if (quantities != null) {
+                if (itemId == null) {
+                    pending.remove(cartId);
+                } else {
+                    quantities.remove(itemId);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the cart's pending edits now, after any flush already in progress. Returns true if the cart had
+     * edits to write. Throws if they could not be written; they stay pending.
+     */
+    public boolean flush(long cartId) {
+        if (!enabled) {
+            return false;
+        }
+        synchronized (flushLock) {
+            Map<Long, Map<Long, Integer>> batch = new HashMap<>();
+            drain(cartId, batch);
+            return write(batch) > 0;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval:PT1S}")
+    public int flush() {
+        if (!enabled || pending.isEmpty()) {
+            return 0;
+        }
+        synchronized (flushLock) {
+            Map<Long, Map<Long, Integer>> batch = new HashMap<>();
+            for (Long cartId : List.copyOf(pending.keySet())) {
+                drain(cartId, batch);
+            }
+            try {
+                return write(batch);
+            } catch (RuntimeException e) {
+                log.error("Could not flush cart edits of {} carts; retrying on the next flush", batch.size(), e);
+                return 0;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            synchronized (journalLock) {
+                try {
+                    journal.close();
+                } catch (IOException e) {
+                    log.warn("Could not close cart journal {}", journalPath, e);
+                }
+            }
+        }
+    }
+
+    private void drain(long cartId, Map<Long, Map<Long, Integer>> batch) {
+        ReentrantLock lock = stripe(cartId);
+        lock.lock();
+        try {
+            Map<Long, Integer> quantities = pending.get(cartId);
+            if (quantities != null && !quantities.isEmpty()) {
+                inFlight.put(cartId, quantities);
+                batch.put(cartId, quantities);
+            }
+            pending.remove(cartId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int write(Map<Long, Map<Long, Integer>> batch) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> items = new ArrayList<>();
+        List<Object[]> carts = new ArrayList<>(batch.size());
+        batch.forEach((cartId, quantities) -> {
+            quantities.forEach((itemId, quantity) -> items.add(new Object[]{quantity, itemId, cartId}));
+            carts.add(new Object[]{cartId});
+        });
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_ITEM_SQL, items);
+                jdbcTemplate.batchUpdate(BUMP_CART_SQL, carts);
+            });
+        } catch (RuntimeException e) {
+            requeue(batch);
+            throw e;
+        }
+        // Committed, so readers find the quantities in the database from here on
+        batch.keySet().forEach(this::landed);
+        compactJournal(batch);
+        return items.size();
+    }
+
+    // Puts a failed batch back without overwriting edits made since it was drained
+    private void requeue(Map<Long, Map<Long, Integer>> batch) {
+        batch.forEach((cartId, quantities) -> {
+            ReentrantLock lock = stripe(cartId);
+            lock.lock();
+            try {
+                Map<Long, Integer> current = pending.computeIfAbsent(cartId, id -> new ConcurrentHashMap<>());
+                quantities.forEach(current::putIfAbsent);
+                inFlight.remove(cartId);
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    private void landed(long cartId) {
+        ReentrantLock lock = stripe(cartId);
+        lock.lock();
+        try {
+            inFlight.remove(cartId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripe(long cartId) {
+        return stripes[Math.floorMod(Long.hashCode(cartId), stripes.length)];
+    }
+
+    private void openJournal() {
+        try {
+            if (journalPath.getParent() != null) {
+                Files.createDirectories(journalPath.getParent());
+            }
+            if (Files.exists(journalPath)) {
+                replay();
+            }
+            journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open cart journal " + journalPath, e);
+        }
+    }
+
+    // Later lines win, and a "-" quantity marks an edit already flushed; a torn last line from a crash mid-append is skipped
+    private void replay() throws IOException {
+        for (String line : Files.readAllLines(journalPath, StandardCharsets.UTF_8)) {
+            String[] fields = line.trim().split(" ");
+            if (fields.length != 3) {
+                continue;
+            }
+            try {
+                long cartId = Long.parseLong(fields[0]);
+                long itemId = Long.parseLong(fields[1]);
+                if (FLUSHED.equals(fields[2])) {
+                    Map<Long, Integer> quantities = pending.get(cartId);
+                    if (quantities != null) {
+                        quantities.remove(itemId);
+                    }
+                    continue;
+                }
+                int quantity = Integer.parseInt(fields[2]);
+                pending.computeIfAbsent(cartId, id -> new ConcurrentHashMap<>()).put(itemId, quantity);
+            } catch (NumberFormatException e) {
+                log.warn("Skipping malformed cart journal line '{}'", line);
+            }
+        }
+        pending.values().removeIf(Map::isEmpty);
+        int replayed = pending.values().stream().mapToInt(Map::size).sum();
+        if (replayed > 0) {
+            log.info("Replayed {} unflushed cart edits from {}", replayed, journalPath);
+        }
+    }
+
+    private void append(String record) {
+        try {
+            ByteBuffer bytes = ByteBuffer.wrap(record.getBytes(StandardCharsets.UTF_8));
+            while (bytes.hasRemaining()) {
+                journal.write(bytes);
+            }
+            if (syncJournal) {
+                journal.force(false);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not append to cart journal " + journalPath, e);
+        }
+    }
+
+    // Replaces the journal with the edits still pending; appends wait meanwhile so none can be lost
+    private void compactJournal(Map<Long, Map<Long, Integer>> flushed) {
+        synchronized (journalLock) {
+            Path compacted = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+            try {
+                StringBuilder records = new StringBuilder();
+                pending.forEach((cartId, quantities) -> quantities.forEach((itemId, quantity) ->
+                        records.append(cartId).append(' ').append(itemId).append(' ').append(quantity).append('\n')));
+                try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING)) {
+                    ByteBuffer bytes = ByteBuffer.wrap(records.toString().getBytes(StandardCharsets.UTF_8));
+                    while (bytes.hasRemaining()) {
+                        out.write(bytes);
+                    }
+                    out.force(true);
+                }
+                journal.close();
+                Files.move(compacted, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                // The old journal still holds the flushed edits, and replaying one would undo any later change made
+                // without the journal (such as adding to the item's quantity), so each is marked flushed instead.
+                // An item edited again since the flush keeps its newer line. While the journal cannot be written
+                // either, edits fail instead of being buffered
+                log.warn("Could not compact cart journal {}", journalPath, e);
+                try {
+                    if (!journal.isOpen()) {
+                        journal = FileChannel.open(journalPath, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+                    }
+                    StringBuilder markers = new StringBuilder();
+                    flushed.forEach((cartId, quantities) -> quantities.keySet().forEach(itemId -> {
+                        if (!pending.getOrDefault(cartId, Map.of()).containsKey(itemId)) {
+                            markers.append(cartId).append(' ').append(itemId).append(' ').append(FLUSHED).append('\n');
+                        }
+                    }));
+                    append(markers.toString());
+                } catch (IOException | UncheckedIOException marking) {
+                    log.error("Could not mark flushed edits in cart journal {}; a restart would replay them", journalPath, marking);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.ecommerce_app.Services;
+
+import java.util.Locale;
+
+/**
+ * Line-oriented formats for bulk exports and imports: one JSON object per line, or CSV with a header row.
+ */
+public enum DataFormat {
+    NDJSON("application/x-ndjson", ".ndjson"),
+    CSV("text/csv", ".csv");
+
+    private final String contentType;
+    private final String extension;
+
+    DataFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static DataFormat parse(String format) {
+        try {
+            return valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown format '" + format + "', expected ndjson or csv");
+        }
+    }
+}
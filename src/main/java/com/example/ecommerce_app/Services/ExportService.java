@@ -0,0 +1,150 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.CartExportRow;
+import com.example.ecommerce_app.DTO.OrderExportRow;
+import com.example.ecommerce_app.DTO.OrderItemExportRow;
+import com.example.ecommerce_app.DTO.PaymentExportRow;
+import com.example.ecommerce_app.Repositories.CartRepository;
+import com.example.ecommerce_app.Repositories.OrderItemRepository;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Streams whole tables for analytics as NDJSON or CSV in constant memory. Rows are read with a JPA
+ * {@link Stream} in one read-only transaction, fetch-size rows per round trip, as flat projections
+ * written out one at a time, so neither the result nor any entity is ever held in full. The persistence
+ * context is cleared every {@value #FLUSH_EVERY_ROWS} rows, when the output is flushed, in case anything
+ * was loaded into it alongside.
+ */
+@Service
+public class ExportService {
+
+    static final int FLUSH_EVERY_ROWS = 1000;
+
+    private record Dataset(Class<? extends Record> rowType, Supplier<Stream<? extends Record>> rows) {}
+
+    private final Map<String, Dataset> datasets;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readOnlyTransaction;
+
+    public ExportService(UserOrderRepository orderRepository, OrderItemRepository orderItemRepository,
+                         PaymentRepository paymentRepository, CartRepository cartRepository,
+                         EntityManager entityManager, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager) {
+        this.datasets = Map.of(
+                "orders", new Dataset(OrderExportRow.class, orderRepository::streamExportRows),
+                "order-items", new Dataset(OrderItemExportRow.class, orderItemRepository::streamExportRows),
+                "payments", new Dataset(PaymentExportRow.class, paymentRepository::streamExportRows),
+                "carts", new Dataset(CartExportRow.class, cartRepository::streamExportRows));
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    /** Throws {@link IllegalArgumentException} for anything but orders, order-items, payments and carts. */
+    public void checkDataset(String dataset) {
+        dataset(dataset);
+    }
+
+    /** Writes every row of {@code dataset} to {@code out} and returns how many were written. */
+    public long export(String dataset, DataFormat format, OutputStream out) {
+        Dataset source = dataset(dataset);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        RecordComponent[] columns = source.rowType().getRecordComponents();
+        Long written = readOnlyTransaction.execute(status -> {
+            try (Stream<? extends Record> rows = source.rows().get()) {
+                if (format == DataFormat.CSV) {
+                    writeCsvHeader(writer, columns);
+                }
+                long count = 0;
+                for (Iterator<? extends Record> it = rows.iterator(); it.hasNext(); ) {
+                    Record row = it.next();
+                    if (format == DataFormat.CSV) {
+                        writeCsvRow(writer, columns, row);
+                    } else {
+                        writer.write(objectMapper.writeValueAsString(row));
+                        writer.write('\n');
+                    }
+                    if (++count % FLUSH_EVERY_ROWS == 0) {
+                        writer.flush();
+                        entityManager.clear();
+                    }
+                }
+                writer.flush();
+                return count;
+            } catch (IOException e) {
+                // Usually the client hanging up; the stream and its cursor are closed on the way out
+                throw new UncheckedIOException(e);
+            }
+        });
+        return written == null ? 0 : written;
+    }
+
+    private Dataset dataset(String dataset) {
+        Dataset source = datasets.get(dataset);
+        if (source == null) {
+            throw new IllegalArgumentException("Unknown export '" + dataset + "', expected one of " + datasets.keySet());
+        }
+        return source;
+    }
+
+    private static void writeCsvHeader(Writer writer, RecordComponent[] columns) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(columns[i].getName());
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvRow(Writer writer, RecordComponent[] columns, Record row) throws IOException {
+        for (int i = 0; i < columns.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value;
+            try {
+                value = columns[i].getAccessor().invoke(row);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new IllegalStateException("Cannot read " + columns[i].getName() + " of " + row.getClass().getSimpleName(), e);
+            }
+            if (value != null) {
+                writer.write(csvField(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    // RFC 4180: quote fields holding a separator, quote or line break, doubling any quotes inside
+    static String csvField(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + value.replace("\"", "\"\"") + '"';
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,233 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.OrderCancelledEvent;
+import com.example.ecommerce_app.Events.OrderDeletedEvent;
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
+import com.example.ecommerce_app.Events.StockReservedEvent;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.ReservationStatus;
+import com.example.ecommerce_app.Model.StockReservation;
+import com.example.ecommerce_app.Model.UserOrder;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.StockReservationRepository;
+import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.exception.InsufficientStockException;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.modulith.events.ApplicationModuleListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Holds stock for orders. Reserving is one JDBC batch of conditional decrements
+ * ({@code quantity = quantity - n ... where quantity >= n}), so concurrent checkouts on the same product
+ * only contend on that product's row and can never take it below zero. Rows are always touched in
+ * productID order so two multi-item checkouts cannot deadlock each other.
+ * Products switched to striped stock are drawn from their stripes by {@link StripedStockService} instead;
+ * the product-row statements skip them, so a product is never drawn from both.
+ * <p>
+ * Reserving stays on the checkout path because it decides whether the order can be placed at all. Releasing
+ * and committing follow order and payment events after those commit, off the request thread.
+ */
+@Service
+public class InventoryService {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryService.class);
+
+    private static final String NOT_STRIPED = " and not exists (select 1 from product_stock_shards s where s.product_id = productid)";
+    private static final String DECREMENT_SQL = "update product set quantity = quantity - ? where productid = ? and quantity >= ?" + NOT_STRIPED;
+    private static final String INCREMENT_SQL = "update product set quantity = quantity + ? where productid = ?" + NOT_STRIPED;
+
+    // A payment still waiting on the gateway may yet be charged (PendingPaymentRecovery settles one left pending too
+    // long), and a completed one has its stock committed by an asynchronous listener that may not have run yet (or
+    // failed until the next restart), so both outlive the TTL
+    private static final Set<PaymentStatus> PAYMENT_HOLDS_STOCK = EnumSet.of(PaymentStatus.PENDING, PaymentStatus.COMPLETED);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final StripedStockService stripedStock;
+    private final StockReservationRepository reservationRepository;
+    private final UserOrderRepository orderRepository;
+    private final PaymentRepository paymentRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration reservationTtl;
+    private final int sweepBatchSize;
+
+    public InventoryService(JdbcTemplate jdbcTemplate,
+                            StripedStockService stripedStock,
+                            StockReservationRepository reservationRepository,
+                            UserOrderRepository orderRepository,
+                            PaymentRepository paymentRepository,
+                            ApplicationEventPublisher eventPublisher,
+                            @Value("${inventory.reservation.ttl:PT15M}") Duration reservationTtl,
+                            @Value("${inventory.reservation.sweep-batch-size:100}") int sweepBatchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.stripedStock = stripedStock;
+        this.reservationRepository = reservationRepository;
+        this.orderRepository = orderRepository;
+        this.paymentRepository = paymentRepository;
+        this.eventPublisher = eventPublisher;
+        this.reservationTtl = reservationTtl;
+        this.sweepBatchSize = sweepBatchSize;
+    }
+
+    /**
+     * Takes {@code quantities} (productID to units) off stock for the order and records the reservations.
+     * Throws {@link InsufficientStockException} if any product is short, which rolls back every decrement.
+     */
+    @Transactional
+    public List<StockReservation> reserve(long orderId, Map<Long, Integer> quantities) {
+        List<Map.Entry<Long, Integer>> items = new ArrayList<>(new TreeMap<>(quantities).entrySet());
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        for (Map.Entry<Long, Integer> item : items) {
+            if (item.getValue() <= 0) {
+                throw new IllegalArgumentException("Quantity must be positive for product with id " + item.getKey());
+            }
+        }
+
+        List<Map.Entry<Long, Integer>> rowStock = new ArrayList<>(items.size());
+        List<Map.Entry<Long, Integer>> stripedItems = new ArrayList<>();
+        for (Map.Entry<Long, Integer> item : items) {
+            (stripedStock.isStriped(item.getKey()) ? stripedItems : rowStock).add(item);
+        }
+
+        if (!rowStock.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, rowStock, rowStock.size(), (statement, item) -> {
+                statement.setInt(1, item.getValue());
+                statement.setLong(2, item.getKey());
+                statement.setInt(3, item.getValue());
+            })[0];
+            for (int i = 0; i < updated.length; i++) {
+                Map.Entry<Long, Integer> item = rowStock.get(i);
+                // Nothing updated: either short, or striped since this node last looked
+                if (updated[i] == 0 && stripedStock.take(item.getKey(), item.getValue()) != StripedStockService.Draw.TAKEN) {
+                    throw new InsufficientStockException(item.getKey());
+                }
+            }
+        }
+        for (Map.Entry<Long, Integer> item : stripedItems) {
+            StripedStockService.Draw draw = stripedStock.take(item.getKey(), item.getValue());
+            if (draw == StripedStockService.Draw.INSUFFICIENT
+                    || (draw == StripedStockService.Draw.NOT_STRIPED
+                        && jdbcTemplate.update(DECREMENT_SQL, item.getValue(), item.getKey(), item.getValue()) == 0)) {
+                throw new InsufficientStockException(item.getKey());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<StockReservation> reservations = new ArrayList<>(items.size());
+        for (Map.Entry<Long, Integer> item : items) {
+            reservations.add(new StockReservation(orderId, item.getKey(), item.getValue(), now, now.plus(reservationTtl)));
+        }
+        List<StockReservation> saved = reservationRepository.saveAll(reservations);
+        eventPublisher.publishEvent(new StockReservedEvent(orderId, quantities));
+        return saved;
+    }
+
+    /** Marks the order's reservations as fulfilled; their stock stays taken. */
+    @Transactional
+    public void commit(long orderId) {
+        List<StockReservation> reservations = reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RESERVED);
+        for (StockReservation reservation : reservations) {
+            reservation.setStatus(ReservationStatus.COMMITTED);
+        }
+        reservationRepository.saveAll(reservations);
+    }
+
+    /** Returns the stock of the order's outstanding reservations. Releasing twice is a no-op. */
+    @Transactional
+    public int release(long orderId) {
+        List<StockReservation> reservations = reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RESERVED);
+        if (reservations.isEmpty()) {
+            return 0;
+        }
+        reservations.sort((a, b) -> Long.compare(a.getProductId(), b.getProductId()));
+        List<StockReservation> rowStock = new ArrayList<>(reservations.size());
+        for (StockReservation reservation : reservations) {
+            if (!stripedStock.isStriped(reservation.getProductId())
+                    || !stripedStock.give(reservation.getProductId(), reservation.getQuantity())) {
+                rowStock.add(reservation);
+            }
+        }
+        if (!rowStock.isEmpty()) {
+            int[] updated = jdbcTemplate.batchUpdate(INCREMENT_SQL, rowStock, rowStock.size(), (statement, reservation) -> {
+                statement.setInt(1, reservation.getQuantity());
+                statement.setLong(2, reservation.getProductId());
+            })[0];
+            for (int i = 0; i < updated.length; i++) {
+                StockReservation reservation = rowStock.get(i);
+                if (updated[i] == 0 && !stripedStock.give(reservation.getProductId(), reservation.getQuantity())) {
+                    log.warn("Could not return {} units of product {}: product no longer exists",
+                            reservation.getQuantity(), reservation.getProductId());
+                }
+            }
+        }
+        for (StockReservation reservation : reservations) {
+            reservation.setStatus(ReservationStatus.RELEASED);
+        }
+        reservationRepository.saveAll(reservations);
+        return reservations.size();
+    }
+
+    @ApplicationModuleListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        commit(event.orderId());
+    }
+
+    @ApplicationModuleListener
+    public void onOrderCancelled(OrderCancelledEvent event) {
+        release(event.orderId());
+    }
+
+    @ApplicationModuleListener
+    public void onOrderDeleted(OrderDeletedEvent event) {
+        release(event.orderId());
+    }
+
+    /**
+     * Releases reservations of orders left unpaid past their expiry and marks those orders expired. Orders with
+     * a payment in flight or completed are left alone; the check is repeated under the reservations' row locks, which
+     * {@code PaymentService} takes too, so a payment started while the sweep runs is never cut short.
+     */
+    @Scheduled(fixedDelayString = "${inventory.reservation.sweep-interval:PT1M}")
+    @Transactional
+    public void releaseExpired() {
+        List<Long> orderIds = reservationRepository.findOrderIdsByStatusAndExpiresAtBefore(
+                ReservationStatus.RESERVED, LocalDateTime.now(), PAYMENT_HOLDS_STOCK, Limit.of(sweepBatchSize));
+        int expired = 0;
+        for (Long orderId : orderIds) {
+            if (reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RESERVED).isEmpty()
+                    || paymentRepository.existsByOrder_OrderIDAndStatusIn(orderId, PAYMENT_HOLDS_STOCK)) {
+                continue;
+            }
+            release(orderId);
+            orderRepository.findById(orderId).ifPresent(order -> expire(order));
+            expired++;
+        }
+        if (expired > 0) {
+            log.info("Released expired stock reservations for {} orders", expired);
+        }
+    }
+
+    private void expire(UserOrder order) {
+        if ("pending".equalsIgnoreCase(order.getStatus())) {
+            order.setStatus("expired");
+            orderRepository.save(order);
+        }
+    }
+}
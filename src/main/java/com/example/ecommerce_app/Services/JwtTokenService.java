@@ -1,33 +1,70 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Model.AuthUser;
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Model.UserPrincipal;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.*;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.time.temporal.ChronoUnit;
+import java.util.UUID;
 
+/**
+ * Issues the two tokens of a login session: a short-lived access token sent on every request, and a
+ * refresh token that is exchanged, once, for a new pair. Both carry the session id ({@code sid}) so
+ * signing out revokes the whole session, and a unique {@code jti} so a single token can be revoked.
+ */
 @Service
 @RequiredArgsConstructor
 public class JwtTokenService {
 
+    public static final String TOKEN_USE_CLAIM = "token_use";
+    public static final String ACCESS_TOKEN = "access";
+    public static final String REFRESH_TOKEN = "refresh";
+    public static final String SESSION_CLAIM = "sid";
+
     private final JwtEncoder encoder;
     private final JwtDecoder decoder;
 
-    public String generateToken(Authentication authentication) {
+    @Value("${security.jwt.access-token-ttl:PT15M}")
+    private Duration accessTokenTtl;
+
+    @Value("${security.jwt.refresh-token-ttl:P14D}")
+    private Duration refreshTokenTtl;
+
+    public String newSessionId() {
+        return UUID.randomUUID().toString();
+    }
+
+    public String generateToken(Authentication authentication, String sessionId) {
         Instant now = Instant.now();
         String scope = "ROLE_USER";
-        JwtClaimsSet claims = JwtClaimsSet.builder()
-                .issuer("self")
-                .issuedAt(now)
-                .expiresAt(now.plus(2, ChronoUnit.HOURS))
-                .subject(authentication.getName())
-                .claim("scope", scope)
-                .build();
-        var encoderParameters = JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims);
-        return this.encoder.encode(encoderParameters).getTokenValue();
+        JwtClaimsSet.Builder claims = claims(authentication, sessionId, ACCESS_TOKEN, now, now.plus(accessTokenTtl))
+                .claim("scope", scope);
+        // Identity claims let authenticated requests resolve their caller without reading the user table
+        if (authentication.getPrincipal() instanceof AuthUser authUser) {
+            LocalUser user = authUser.getUser();
+            claims.claim(UserPrincipal.USER_ID_CLAIM, user.getID());
+            if (user.getRole() != null) {
+                claims.claim(UserPrincipal.ROLE_CLAIM, user.getRole());
+            }
+        }
+        return encode(claims);
+    }
+
+    public String generateRefreshToken(Authentication authentication, String sessionId) {
+        Instant now = Instant.now();
+        return encode(claims(authentication, sessionId, REFRESH_TOKEN, now, now.plus(refreshTokenTtl)));
+    }
+
+    /** No token of a session started or refreshed up to now can outlive this, so neither need its revocation. */
+    public Instant sessionExpiryBound() {
+        return Instant.now().plus(refreshTokenTtl);
     }
 
     public Long extractExpirationTime(String token) {
@@ -36,4 +73,21 @@ public class JwtTokenService {
         return exp.toEpochMilli();
     }
 
+    private static JwtClaimsSet.Builder claims(Authentication authentication, String sessionId, String tokenUse,
+                                               Instant issuedAt, Instant expiresAt) {
+        return JwtClaimsSet.builder()
+                .issuer("self")
+                .id(UUID.randomUUID().toString())
+                .issuedAt(issuedAt)
+                .expiresAt(expiresAt)
+                .subject(authentication.getName())
+                .claim(SESSION_CLAIM, sessionId)
+                .claim(TOKEN_USE_CLAIM, tokenUse);
+    }
+
+    private String encode(JwtClaimsSet.Builder claims) {
+        var encoderParameters = JwtEncoderParameters.from(JwsHeader.with(MacAlgorithm.HS256).build(), claims.build());
+        return this.encoder.encode(encoderParameters).getTokenValue();
+    }
+
 }
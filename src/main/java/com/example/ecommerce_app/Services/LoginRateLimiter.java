@@ -0,0 +1,137 @@
+package com.example.ecommerce_app.Services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token buckets for login attempts, one per client IP and one per account named in the attempt. An attempt
+ * takes a token from both before any password is hashed; a successful login hands back the account's, so only
+ * failures drain an account's bucket and a user who mistypes a few times is not locked out for long. Every
+ * attempt counts against the IP.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it will be full again (the generic
+ * cell rate algorithm), so taking a token is one compare-and-set with no lock. Buckets live in a
+ * size-bounded cache and are dropped once idle for a whole refill period, by which time they are full
+ * anyway. Throttled attempts count under {@code auth.login.throttled}, tagged by which limit refused them.
+ */
+@Service
+public class LoginRateLimiter {
+
+    private final Limit byIp;
+    private final Limit byAccount;
+
+    @Autowired
+    public LoginRateLimiter(@Value("${security.login.rate-limit.ip.capacity:20}") int ipCapacity,
+                            @Value("${security.login.rate-limit.ip.refill-period:PT1M}") Duration ipRefillPeriod,
+                            @Value("${security.login.rate-limit.account.capacity:5}") int accountCapacity,
+                            @Value("${security.login.rate-limit.account.refill-period:PT1M}") Duration accountRefillPeriod,
+                            @Value("${security.login.rate-limit.max-tracked-keys:100000}") long maxTrackedKeys,
+                            MeterRegistry meterRegistry) {
+        this(ipCapacity, ipRefillPeriod, accountCapacity, accountRefillPeriod, maxTrackedKeys, meterRegistry, Ticker.systemTicker());
+    }
+
+    LoginRateLimiter(int ipCapacity, Duration ipRefillPeriod, int accountCapacity, Duration accountRefillPeriod,
+                     long maxTrackedKeys, MeterRegistry meterRegistry, Ticker ticker) {
+        this.byIp = new Limit("ip", ipCapacity, ipRefillPeriod, maxTrackedKeys, meterRegistry, ticker);
+        this.byAccount = new Limit("account", accountCapacity, accountRefillPeriod, maxTrackedKeys, meterRegistry, ticker);
+    }
+
+    /**
+     * Takes a token for the attempt from the IP's and the account's bucket. Returns {@link Duration#ZERO} if the
+     * attempt may go ahead, otherwise how long the caller should wait; a refused attempt takes nothing.
+     */
+    public Duration tryAcquire(String clientIp, String account) {
+        String accountKey = normalize(account);
+        long ipWait = byIp.tryAcquire(clientIp);
+        if (ipWait > 0) {
+            return Duration.ofNanos(ipWait);
+        }
+        long accountWait = accountKey == null ? 0 : byAccount.tryAcquire(accountKey);
+        if (accountWait > 0) {
+            byIp.refund(clientIp);
+            return Duration.ofNanos(accountWait);
+        }
+        return Duration.ZERO;
+    }
+
+    /**
+     * Returns the account's token for an attempt that turned out to be a successful login. The IP's token is
+     * kept: refunding it would let a client interleave logins to an account it owns with guesses at others and
+     * never be throttled by IP.
+     */
+    public void refund(String account) {
+        String accountKey = normalize(account);
+        if (accountKey != null) {
+            byAccount.refund(accountKey);
+        }
+    }
+
+    private static String normalize(String account) {
+        if (account == null || account.isBlank()) {
+            return null;
+        }
+        return account.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Limit {
+
+        private final long capacity;
+        private final long intervalNanos;
+        private final Ticker ticker;
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter throttled;
+
+        Limit(String scope, int capacity, Duration refillPeriod, long maxTrackedKeys, MeterRegistry meterRegistry, Ticker ticker) {
+            if (capacity < 1) {
+                throw new IllegalArgumentException("Login rate limit capacity must be at least 1");
+            }
+            this.capacity = capacity;
+            this.intervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+            this.ticker = ticker;
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxTrackedKeys)
+                    .expireAfterAccess(refillPeriod)
+                    .ticker(ticker)
+                    .build();
+            this.throttled = Counter.builder("auth.login.throttled")
+                    .description("Login attempts refused by the rate limiter")
+                    .tag("limit", scope)
+                    .register(meterRegistry);
+        }
+
+        // 0 if a token was taken, otherwise the nanoseconds until one will be available
+        long tryAcquire(String key) {
+            AtomicLong fullAt = buckets.get(key, ignored -> new AtomicLong(Long.MIN_VALUE));
+            while (true) {
+                long now = ticker.read();
+                long current = fullAt.get();
+                long next = Math.max(current, now) + intervalNanos;
+                long wait = next - now - capacity * intervalNanos;
+                if (wait > 0) {
+                    throttled.increment();
+                    return wait;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        void refund(String key) {
+            AtomicLong fullAt = buckets.getIfPresent(key);
+            if (fullAt != null) {
+                fullAt.accumulateAndGet(intervalNanos, (current, interval) -> Math.max(current - interval, ticker.read()));
+            }
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.OrderHistoryPage;
+import com.example.ecommerce_app.DTO.OrderItemSummary;
+import com.example.ecommerce_app.DTO.OrderSummary;
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Repositories.OrderItemRepository;
+import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Read model for a buyer's order history. Pages are built from DTO projections rather than
+ * {@code UserOrder} entities, so a page costs two queries (orders, then all their items) no matter
+ * how many orders or items it holds, and the buyer's account is never loaded or serialized.
+ */
+@Service
+public class OrderHistoryService {
+
+    private final UserOrderRepository orderRepo;
+    private final OrderItemRepository orderItemRepo;
+    private final int defaultPageSize;
+    private final int maxPageSize;
+
+    public OrderHistoryService(UserOrderRepository orderRepo,
+                               OrderItemRepository orderItemRepo,
+                               @Value("${orders.history.default-size:20}") int defaultPageSize,
+                               @Value("${orders.history.max-size:100}") int maxPageSize) {
+        this.orderRepo = orderRepo;
+        this.orderItemRepo = orderItemRepo;
+        this.defaultPageSize = defaultPageSize;
+        this.maxPageSize = maxPageSize;
+    }
+
+    /** One page of the user's orders, newest first, continuing after ({@code before}, {@code beforeId}) when given. */
+    public OrderHistoryPage getOrderHistory(LocalUser user, String status, LocalDateTime before, Long beforeId, Integer size) {
+        int pageSize = (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+        if ((before == null) != (beforeId == null)) {
+            throw new IllegalArgumentException("before and beforeId must be given together");
+        }
+
+        // Ask for one extra row so we know whether another page exists without a count query
+        Limit limit = Limit.of(pageSize + 1);
+        List<OrderSummary> rows = (before == null)
+                ? orderRepo.findSummariesByUser(user.getID(), status, limit)
+                : orderRepo.findSummariesByUserBefore(user.getID(), status, before, beforeId, limit);
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderSummary> orders = hasMore ? rows.subList(0, pageSize) : rows;
+
+        if (!orders.isEmpty()) {
+            Map<Long, OrderSummary> byId = new HashMap<>();
+            for (OrderSummary order : orders) {
+                byId.put(order.orderID(), order);
+            }
+            for (OrderItemSummary item : orderItemRepo.findSummariesByOrderIds(byId.keySet())) {
+                byId.get(item.orderID()).items().add(item);
+            }
+        }
+
+        OrderSummary last = hasMore ? orders.getLast() : null;
+        return new OrderHistoryPage(List.copyOf(orders),
+                last == null ? null : last.orderDate(),
+                last == null ? null : last.orderID(),
+                hasMore);
+    }
+}
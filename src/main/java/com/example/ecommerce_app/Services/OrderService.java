@@ -1,15 +1,25 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.DTO.PricedCart;
+import com.example.ecommerce_app.Events.OrderCancelledEvent;
+import com.example.ecommerce_app.Events.OrderDeletedEvent;
+import com.example.ecommerce_app.Events.OrderPlacedEvent;
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
 import com.example.ecommerce_app.Model.*;
+import com.example.ecommerce_app.Repositories.CartItemRepository;
+import com.example.ecommerce_app.Repositories.CartRepository;
 import com.example.ecommerce_app.Repositories.OrderItemRepository;
-import com.example.ecommerce_app.Repositories.PaymentRepository;
 import com.example.ecommerce_app.Repositories.UserOrderRepository;
 import jakarta.transaction.Transactional;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.modulith.events.ApplicationModuleListener;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Optional;
 
 @Service
 public class OrderService {
@@ -17,14 +27,24 @@ public class OrderService {
     private final UserOrderRepository orderRepo;
 
     private final OrderItemRepository orderItemRepo;
-    private final PaymentRepository paymentRepository;
-    private final PaymentService paymentService;
-
-    public OrderService(UserOrderRepository orderRepo, OrderItemRepository orderItemRepo, PaymentRepository paymentRepository, PaymentService paymentService) {
+    private final InventoryService inventoryService;
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CartPricingEngine pricingEngine;
+    private final CartWriteBehindBuffer writeBehind;
+
+    public OrderService(UserOrderRepository orderRepo, OrderItemRepository orderItemRepo, InventoryService inventoryService,
+                        CartRepository cartRepository, CartItemRepository cartItemRepository, ApplicationEventPublisher eventPublisher,
+                        CartPricingEngine pricingEngine, CartWriteBehindBuffer writeBehind) {
         this.orderRepo = orderRepo;
         this.orderItemRepo = orderItemRepo;
-        this.paymentRepository = paymentRepository;
-        this.paymentService = paymentService;
+        this.inventoryService = inventoryService;
+        this.cartRepository = cartRepository;
+        this.cartItemRepository = cartItemRepository;
+        this.eventPublisher = eventPublisher;
+        this.pricingEngine = pricingEngine;
+        this.writeBehind = writeBehind;
     }
 
     public List<UserOrder> getOrdersByUser(LocalUser user, String status) {
@@ -35,53 +55,103 @@ public class OrderService {
         return orderRepo.findById(id).orElse(null);
     }
 
+    /**
+     * Turns the user's cart into an order in one transaction: the cart is priced (from the pricing memo when the
+     * cart has not changed since it was last viewed, otherwise by reading it with its products in a single
+     * query), the order items are inserted as a JDBC batch, stock is reserved and the cart is emptied.
+     * If any step fails (e.g. a product is out of stock) the cart is left as it was.
+     * In write-behind mode the cart's buffered quantity edits are flushed first, and the version is then read
+     * afresh, since the flush bumped it after the cart was loaded.
+     */
+    @Transactional
+    public UserOrder checkout(LocalUser user) {
+        Optional<Cart> cart = cartRepository.findByUser(user);
+        if (cart.isEmpty()) {
+            return placeOrder(user, pricingEngine.price(List.of()));
+        }
+        long cartId = cart.get().getId();
+        long version = cart.get().getVersion();
+        if (writeBehind.isEnabled()) {
+            writeBehind.flush(cartId);
+            version = cartRepository.findVersionById(cartId);
+        }
+        PricedCart priced = pricingEngine.price(cartId, version,
+                () -> cartRepository.findWithItemsAndProductsByUser(user).map(c -> List.copyOf(c.getItems())).orElse(List.of()));
+
+        UserOrder order = placeOrder(user, priced);
+        if (!priced.lines().isEmpty()) {
+            cartItemRepository.deleteByCartId(cartId);
+            cartRepository.bumpVersion(cartId);
+        }
+        return order;
+    }
+
+    @Transactional
     public UserOrder placeOrder(LocalUser user, List<CartItem> cartItems) {
+        return placeOrder(user, pricingEngine.price(cartItems));
+    }
+
+    private UserOrder placeOrder(LocalUser user, PricedCart priced) {
         UserOrder order = new UserOrder();
         order.setUser(user);
         order.setStatus("pending");
         order.setOrderDate(LocalDateTime.now());
 
-        double total = 0.0;
         List<OrderItem> orderItems = new java.util.ArrayList<>();
+        Map<Long, Integer> quantities = new LinkedHashMap<>();
 
-        for (CartItem cartItem : cartItems) {
+        for (PricedCart.Line line : priced.lines()) {
             OrderItem orderItem = new OrderItem();
-            orderItem.setProductName(cartItem.getProduct().getName());
-            orderItem.setQuantity(cartItem.getQuantity());
-            orderItem.setPrice(cartItem.getProduct().getPrice());
+            orderItem.setProductName(line.productName());
+            orderItem.setQuantity(line.quantity());
+            orderItem.setPrice(CartPricingEngine.toAmount(line.unitPriceCents()));
             orderItem.setOrder(order); // link back to order
 
-            total += cartItem.getQuantity() * cartItem.getProduct().getPrice();
             orderItems.add(orderItem);
+            quantities.merge(line.productId(), line.quantity(), Integer::sum);
         }
 
+        // Totals are summed in cents by the pricing engine; the order keeps its amount in currency units
+        double total = CartPricingEngine.toAmount(priced.totalCents());
         order.setItems(orderItems); // now using OrderItem
         order.setTotalPrice(total);
 
-        return orderRepo.save(order); // orderItems will be saved due to CascadeType.ALL
+        UserOrder saved = orderRepo.save(order); // orderItems will be saved due to CascadeType.ALL
+        // Throws InsufficientStockException when any product is short, rolling back the order as well
+        inventoryService.reserve(saved.getOrderID(), quantities);
+        eventPublisher.publishEvent(new OrderPlacedEvent(saved.getOrderID(), user.getID(), total));
+        return saved;
     }
 
 
+    /** Saves the order; cancelling it gives its stock back once the change has committed. */
+    @Transactional
     public UserOrder updateOrder(UserOrder order) {
+        if (isCancelled(order.getStatus())) {
+            eventPublisher.publishEvent(new OrderCancelledEvent(order.getOrderID()));
+        }
         return orderRepo.save(order);
     }
 
+    private static boolean isCancelled(String status) {
+        return "canceled".equalsIgnoreCase(status) || "cancelled".equalsIgnoreCase(status);
+    }
+
+    /**
+     * Deletes the order. Rows referencing it (its payment) are removed by synchronous listeners of
+     * {@link OrderDeletedEvent} before the order itself; its stock is released after the delete commits.
+     */
     @Transactional
     public void deleteOrder(Long id) {
-        /// @check for any caused issues
-        //check if payment exists first
-        try {
-            Payment payment = paymentService.getPaymentByOrderId(id);
-            if (payment != null) {
-                paymentRepository.deleteByOrder_OrderID(id);
-            }
-        } catch (NoSuchElementException e) {
-            // No payment found for this order, continue with order deletion
-        }
-
-        // Check if order exists before trying to delete it
         if (orderRepo.existsById(id)) {
+            eventPublisher.publishEvent(new OrderDeletedEvent(id));
             orderRepo.deleteById(id);
         }
     }
+
+    /** Paid orders keep their stock instead of expiring. */
+    @ApplicationModuleListener
+    public void onPaymentCompleted(PaymentCompletedEvent event) {
+        orderRepo.updateStatusIn(List.of(event.orderId()), "pending", "paid");
+    }
 }
@@ -0,0 +1,101 @@
+package com.example.ecommerce_app.Services;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Runs gateway charges off the request thread, one virtual thread per charge, so a payment that takes
+ * seconds at the gateway ties up no platform thread. A semaphore caps the charges in flight to protect
+ * the gateway; callers beyond the cap wait (cheaply, being virtual) for a slot.
+ */
+@Component
+public class PaymentExecutionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentExecutionEngine.class);
+
+    private final PaymentGateway gateway;
+    private final Semaphore inFlight;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public PaymentExecutionEngine(PaymentGateway gateway,
+                                  @Value("${payments.executor.max-in-flight:1000}") int maxInFlight) {
+        this.gateway = gateway;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    /**
+     * Charges asynchronously and hands the outcome to {@code onResult}. Inside a transaction the charge
+     * starts only after commit, so the callback always finds the payment row it is about to update.
+     */
+    public void submit(PaymentGateway.Charge charge, Consumer<PaymentGateway.Result> onResult) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    start(charge, onResult);
+                }
+            });
+        } else {
+            start(charge, onResult);
+        }
+    }
+
+    private void start(PaymentGateway.Charge charge, Consumer<PaymentGateway.Result> onResult) {
+        executor.execute(() -> {
+            try {
+                inFlight.acquire();
+            } catch (InterruptedException e) {
+                // Never reached the gateway, so the charge can safely be failed
+                record(charge, PaymentGateway.Result.failed("Interrupted before charging"), onResult);
+                Thread.currentThread().interrupt();
+                return;
+            }
+            PaymentGateway.Result result;
+            try {
+                result = gateway.charge(charge);
+            } catch (InterruptedException e) {
+                // The gateway may or may not have charged; PendingPaymentRecovery asks it later
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("Gateway charge for payment {} failed", charge.paymentId(), e);
+                result = PaymentGateway.Result.failed(e.getMessage());
+            } finally {
+                inFlight.release();
+            }
+            record(charge, result, onResult);
+        });
+    }
+
+    // A result that cannot be recorded fails the payment instead, so it does not stay pending and hold its
+    // order's stock; if even that fails, PendingPaymentRecovery settles it once it is stale
+    private void record(PaymentGateway.Charge charge, PaymentGateway.Result result, Consumer<PaymentGateway.Result> onResult) {
+        try {
+            onResult.accept(result);
+        } catch (RuntimeException e) {
+            log.error("Could not record gateway result for payment {}", charge.paymentId(), e);
+            try {
+                onResult.accept(PaymentGateway.Result.failed("Could not record gateway result: " + e.getMessage()));
+            } catch (RuntimeException again) {
+                log.error("Could not fail payment {} either", charge.paymentId(), again);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.PaymentStatus;
+
+import java.util.Optional;
+
+/**
+ * Service provider interface for payment gateways. {@link PaymentExecutionEngine} calls
+ * {@link #charge} on a virtual thread, so implementations may simply block on the gateway's API.
+ */
+public interface PaymentGateway {
+
+    /** What to charge. {@code reference} is the payment's transactionId and doubles as the idempotency key. */
+    record Charge(long paymentId, long orderId, String reference, String method, double amount) {}
+
+    /** Final outcome of a charge: COMPLETED or FAILED, with the gateway's reason for a failure. */
+    record Result(PaymentStatus status, String message) {
+        public static Result completed() {
+            return new Result(PaymentStatus.COMPLETED, null);
+        }
+
+        public static Result failed(String message) {
+            return new Result(PaymentStatus.FAILED, message);
+        }
+    }
+
+    Result charge(Charge charge) throws Exception;
+
+    /**
+     * The final outcome of an earlier charge, by its reference, or empty if the gateway has none. Used by
+     * {@link PendingPaymentRecovery} for payments whose result never got recorded; gateways that cannot look
+     * charges up keep this default, and such payments are failed.
+     */
+    default Optional<Result> lookup(String reference) throws Exception {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
+import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentNotification;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.ProcessedPaymentNotification;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.ProcessedPaymentNotificationRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Ingests gateway payment notifications. Gateways redeliver aggressively, so a notification is dropped
+ * as early as possible once its transaction is known:
+ * <ol>
+ *     <li>a bounded in-memory seen-set rejects redeliveries before they are even queued;</li>
+ *     <li>accepted notifications are queued and applied in batches, one transaction per batch;</li>
+ *     <li>the {@code payment_notifications} idempotency table catches what the seen-set has forgotten
+ *     (eviction, restarts, other nodes).</li>
+ * </ol>
+ * A batch locks its pending payments with one query and settles them with one update per status; each
+ * completed payment then publishes a {@link PaymentCompletedEvent} for the order and stock. Notifications
+ * for payments that are already settled are recorded too; only those matching no payment are forgotten.
+ */
+@Service
+public class PaymentNotificationPipeline {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentNotificationPipeline.class);
+
+    private final PaymentRepository paymentRepository;
+    private final ProcessedPaymentNotificationRepository processedRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<Accepted> queue;
+    private final Cache<String, Boolean> seen;
+    private final int batchSize;
+
+    private record Accepted(String transactionId, PaymentStatus status) {}
+
+    public PaymentNotificationPipeline(PaymentRepository paymentRepository,
+                                       ProcessedPaymentNotificationRepository processedRepository,
+                                       ApplicationEventPublisher eventPublisher,
+                                       TransactionTemplate transactionTemplate,
+                                       @Value("${payments.notifications.queue-capacity:10000}") int queueCapacity,
+                                       @Value("${payments.notifications.batch-size:500}") int batchSize,
+                                       @Value("${payments.notifications.seen-capacity:100000}") long seenCapacity,
+                                       @Value("${payments.notifications.seen-ttl:PT1H}") Duration seenTtl) {
+        this.paymentRepository = paymentRepository;
+        this.processedRepository = processedRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.seen = Caffeine.newBuilder().maximumSize(seenCapacity).expireAfterWrite(seenTtl).build();
+    }
+
+    /**
+     * Accepts a notification for asynchronous processing. Returns false if it was dropped as a duplicate
+     * or carries no final status; throws {@link RejectedExecutionException} when the queue is full so the
+     * gateway backs off and redelivers later.
+     */
+    public boolean submit(PaymentNotification notification) {
+        String transactionId = notification.getTransactionId();
+        PaymentStatus status = finalStatus(notification.getStatus());
+        if (transactionId == null || status == null) {
+            log.debug("Ignoring payment notification with transaction {} and status {}", transactionId, notification.getStatus());
+            return false;
+        }
+        if (seen.asMap().putIfAbsent(transactionId, Boolean.TRUE) != null) {
+            return false;
+        }
+        if (!queue.offer(new Accepted(transactionId, status))) {
+            seen.invalidate(transactionId);
+            throw new RejectedExecutionException("Payment notification queue is full, retry later");
+        }
+        return true;
+    }
+
+    /** Applies everything queued so far, in batches. Runs on a schedule; callable directly (e.g. from tests). */
+    @Scheduled(fixedDelayString = "${payments.notifications.flush-interval:PT0.1S}")
+    public int flush() {
+        int applied = 0;
+        List<Accepted> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                applied += transactionTemplate.execute(status -> apply(batch));
+            } catch (RuntimeException e) {
+                // Forget the batch so the gateway's redeliveries get through and are applied then
+                log.error("Could not apply {} payment notifications", batch.size(), e);
+                batch.forEach(accepted -> seen.invalidate(accepted.transactionId()));
+            }
+            batch.clear();
+        }
+        return applied;
+    }
+
+    private int apply(List<Accepted> batch) {
+        Map<String, PaymentStatus> fresh = new LinkedHashMap<>();
+        for (Accepted accepted : batch) {
+            fresh.putIfAbsent(accepted.transactionId(), accepted.status());
+        }
+        processedRepository.findAllById(fresh.keySet())
+                .forEach(processed -> fresh.remove(processed.getTransactionId()));
+        if (fresh.isEmpty()) {
+            return 0;
+        }
+
+        // The pending payments stay locked until commit, so one update per status settles them all and the gateway
+        // callback, waiting on the same rows, finds them settled and announces nothing
+        Map<PaymentStatus, List<Long>> toSettle = new EnumMap<>(PaymentStatus.class);
+        List<PaymentCompletedEvent> completed = new ArrayList<>();
+        List<ProcessedPaymentNotification> processed = new ArrayList<>(fresh.size());
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> pending = paymentRepository.findByTransactionIdInAndStatus(fresh.keySet(), PaymentStatus.PENDING);
+        for (Payment payment : pending) {
+            PaymentStatus status = fresh.remove(payment.getTransactionId());
+            toSettle.computeIfAbsent(status, s -> new ArrayList<>()).add(payment.getId());
+            processed.add(new ProcessedPaymentNotification(payment.getTransactionId(), status.name(), now));
+            if (status == PaymentStatus.COMPLETED) {
+                completed.add(new PaymentCompletedEvent(payment.getId(), payment.getOrder().getOrderID()));
+            }
+        }
+        toSettle.forEach((status, ids) -> {
+            if (paymentRepository.updateStatusIn(ids, PaymentStatus.PENDING, status) != ids.size()) {
+                // Rolls the batch back; flush() forgets it, so the redeliveries are applied afresh
+                throw new IllegalStateException("Locked pending payments changed status under a notification batch");
+            }
+        });
+
+        // Payments settled before their notification arrived (usually by the gateway callback): nothing to apply, but
+        // recorded and kept seen so redeliveries stop here
+        if (!fresh.isEmpty()) {
+            for (String transactionId : paymentRepository.findTransactionIdsIn(fresh.keySet())) {
+                processed.add(new ProcessedPaymentNotification(transactionId, fresh.remove(transactionId).name(), now));
+            }
+        }
+        completed.forEach(eventPublisher::publishEvent);
+        processedRepository.saveAll(processed);
+
+        // No such payment: unknown, or ahead of its payment's commit. Left unrecorded and forgotten, so a redelivery
+        // is applied if the payment shows up
+        fresh.keySet().forEach(seen::invalidate);
+        return pending.size();
+    }
+
+    // Gateways report outcomes in their own vocabulary; anything unrecognised is not a final state
+    static PaymentStatus finalStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        return switch (status.toUpperCase(Locale.ROOT)) {
+            case "SUCCESS", "SUCCEEDED", "COMPLETED", "PAID" -> PaymentStatus.COMPLETED;
+            case "FAILED", "FAILURE", "DECLINED" -> PaymentStatus.FAILED;
+            case "CANCELLED", "CANCELED" -> PaymentStatus.CANCELLED;
+            default -> null;
+        };
+    }
+}
@@ -1,25 +1,46 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Events.OrderDeletedEvent;
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
 import com.example.ecommerce_app.Model.*;
 import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.StockReservationRepository;
 import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.exception.OrderNotPayableException;
+import jakarta.transaction.Transactional;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.UUID;
 
 @Service
 public class PaymentService {
 
     private final PaymentRepository paymentRepository;
     private final UserOrderRepository orderRepository;
+    private final StockReservationRepository reservationRepository;
+    private final PaymentExecutionEngine executionEngine;
+    private final PaymentNotificationPipeline notificationPipeline;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public PaymentService(PaymentRepository paymentRepository, UserOrderRepository orderRepository) {
+    public PaymentService(PaymentRepository paymentRepository, UserOrderRepository orderRepository,
+                          StockReservationRepository reservationRepository, PaymentExecutionEngine executionEngine, PaymentNotificationPipeline notificationPipeline,
+                          ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
         this.paymentRepository = paymentRepository;
         this.orderRepository = orderRepository;
+        this.reservationRepository = reservationRepository;
+        this.executionEngine = executionEngine;
+        this.notificationPipeline = notificationPipeline;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
     }
 
     public Payment processPayment(Long orderId, PaymentMethod method, double amount, LocalUser user) {
@@ -37,12 +58,47 @@ public class PaymentService {
         payment.setAmount(amount);
         payment.setStatus(PaymentStatus.PENDING);
         payment.setCreatedAt(LocalDateTime.now());
+        // Our reference for the charge; gateway notifications quote it back
+        payment.setTransactionId("PAY-" + UUID.randomUUID());
+
+        // Only a pending order still holding its stock can be paid. The reservations are locked first, as the expiry
+        // sweep does, so the order cannot expire between this check and the payment being saved
+        Payment saved = transactionTemplate.execute(tx -> {
+            boolean reserved = !reservationRepository.findByOrderIdAndStatus(orderId, ReservationStatus.RESERVED).isEmpty();
+            String status = orderRepository.findById(orderId).map(UserOrder::getStatus).orElse("deleted");
+            if (!reserved || !"pending".equalsIgnoreCase(status)) {
+                throw new OrderNotPayableException(orderId, status);
+            }
+            return paymentRepository.save(payment);
+        });
+
+        // Returned while still PENDING; the gateway outcome arrives later and is polled via GET /api/payments/{orderId}
+        executionEngine.submit(
+                new PaymentGateway.Charge(saved.getId(), orderId, saved.getTransactionId(), saved.getMethod(), amount),
+                result -> transactionTemplate.executeWithoutResult(tx -> settle(saved.getId(), orderId, result.status())));
+        return saved;
+    }
 
-        // Simulate payment success
-        boolean success = true;
-        payment.setStatus(PaymentStatus.COMPLETED);
+    /**
+     * Moves a PENDING payment to its final status. Only the first settlement wins, whether it comes from
+     * the gateway callback or a notification; later ones are ignored. A completed payment publishes
+     * {@link PaymentCompletedEvent}, which marks the order paid and commits its stock after this commits.
+     */
+    @Transactional
+    public boolean settle(long paymentId, long orderId, PaymentStatus status) {
+        if (paymentRepository.updateStatusIf(paymentId, PaymentStatus.PENDING, status) == 0) {
+            return false;
+        }
+        if (status == PaymentStatus.COMPLETED) {
+            eventPublisher.publishEvent(new PaymentCompletedEvent(paymentId, orderId));
+        }
+        return true;
+    }
 
-        return paymentRepository.save(payment);
+    // Runs inside the deleting transaction: the payment references the order, so it has to go first
+    @EventListener
+    public void onOrderDeleted(OrderDeletedEvent event) {
+        paymentRepository.deleteByOrder_OrderID(event.orderId());
     }
 
     public Payment getPaymentByOrderId(Long orderId) {
@@ -82,7 +138,8 @@ public class PaymentService {
     }
 
 
+    /** Hands the notification to the ingestion pipeline; duplicates are dropped there. */
     public void handleNotification(PaymentNotification notification) {
-        System.out.println("Handling payment notification: " + notification);
+        notificationPipeline.submit(notification);
     }
 }
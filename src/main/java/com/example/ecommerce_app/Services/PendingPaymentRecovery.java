@@ -0,0 +1,80 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Settles payments still PENDING {@code payments.recovery.pending-timeout} after they were created: their charge
+ * was lost to a restart or an interrupted thread, or its result could not be recorded. The gateway is asked for
+ * the charge's outcome by reference; without one the payment is failed. Either way the order's stock is no
+ * longer held by a pending payment, and the reservation sweep can release it.
+ * <p>
+ * The timeout has to comfortably exceed the slowest charge, queueing for a slot included: a charge that completes
+ * after its payment was failed here loses the compare-and-set in {@link PaymentService#settle} and is not recorded.
+ */
+@Service
+public class PendingPaymentRecovery {
+
+    private static final Logger log = LoggerFactory.getLogger(PendingPaymentRecovery.class);
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentGateway gateway;
+    private final PaymentService paymentService;
+    private final Duration pendingTimeout;
+    private final int batchSize;
+    private final Clock clock;
+
+    @Autowired
+    public PendingPaymentRecovery(PaymentRepository paymentRepository, PaymentGateway gateway, PaymentService paymentService,
+                                  @Value("${payments.recovery.pending-timeout:PT15M}") Duration pendingTimeout,
+                                  @Value("${payments.recovery.batch-size:100}") int batchSize) {
+        this(paymentRepository, gateway, paymentService, pendingTimeout, batchSize, Clock.systemDefaultZone());
+    }
+
+    PendingPaymentRecovery(PaymentRepository paymentRepository, PaymentGateway gateway, PaymentService paymentService,
+                           Duration pendingTimeout, int batchSize, Clock clock) {
+        this.paymentRepository = paymentRepository;
+        this.gateway = gateway;
+        this.paymentService = paymentService;
+        this.pendingTimeout = pendingTimeout;
+        this.batchSize = batchSize;
+        this.clock = clock;
+    }
+
+    /** Settles up to {@code batch-size} stale pending payments and returns how many this run settled. */
+    @Scheduled(fixedDelayString = "${payments.recovery.interval:PT1M}")
+    public int recover() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minus(pendingTimeout);
+        int settled = 0;
+        for (Payment payment : paymentRepository.findByStatusAndCreatedAtBefore(PaymentStatus.PENDING, cutoff, Limit.of(batchSize))) {
+            PaymentGateway.Result result;
+            try {
+                result = gateway.lookup(payment.getTransactionId())
+                        .orElseGet(() -> PaymentGateway.Result.failed("No gateway result within " + pendingTimeout));
+            } catch (Exception e) {
+                // The gateway may know better once it is reachable again, so the payment waits for the next run
+                log.warn("Could not look up the charge of payment {}", payment.getId(), e);
+                continue;
+            }
+            if (paymentService.settle(payment.getId(), payment.getOrder().getOrderID(), result.status())) {
+                settled++;
+            }
+        }
+        if (settled > 0) {
+            log.info("Settled {} payments left pending past {}", settled, pendingTimeout);
+        }
+        return settled;
+    }
+}
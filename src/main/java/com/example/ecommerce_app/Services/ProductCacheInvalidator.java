@@ -0,0 +1,80 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Config.CacheConfig;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Events.ProductsImportedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Evicts exactly the catalog cache entries a product change can affect: the product itself,
+ * the category lists it left or joined, and the name searches whose term matches its old or new name.
+ * Runs after the surrounding transaction completes (commit or rollback) so an entry cached from
+ * uncommitted data never outlives the transaction that produced it.
+ */
+@Component
+public class ProductCacheInvalidator {
+
+    private final CacheManager cacheManager;
+
+    public ProductCacheInvalidator(CacheManager cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        evict(CacheConfig.PRODUCTS, event.productId());
+
+        Stream.of(event.before(), event.after())
+                .filter(product -> product != null)
+                .forEach(this::evictListsContaining);
+    }
+
+    // A bulk import can touch any entry, and evicting per product would scan the search cache per product
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        Stream.of(CacheConfig.PRODUCTS, CacheConfig.PRODUCTS_BY_CATEGORY, CacheConfig.PRODUCT_SEARCH)
+                .map(cacheManager::getCache)
+                .filter(cache -> cache != null)
+                .forEach(Cache::clear);
+    }
+
+    private void evictListsContaining(Product product) {
+        if (product.getCategory() != null) {
+            evict(CacheConfig.PRODUCTS_BY_CATEGORY, product.getCategory());
+        }
+        if (product.getName() != null) {
+            evictSearchesMatching(product.getName().toLowerCase(Locale.ROOT));
+        }
+    }
+
+    // Search entries are keyed by the lowercased term, and a term's result set can only change
+    // if the term is a substring of the product's name.
+    @SuppressWarnings("unchecked")
+    private void evictSearchesMatching(String lowerCaseName) {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_SEARCH);
+        if (cache == null) {
+            return;
+        }
+        if (cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache) {
+            ((com.github.benmanes.caffeine.cache.Cache<Object, Object>) nativeCache).asMap().keySet()
+                    .removeIf(term -> lowerCaseName.contains(term.toString()));
+        } else {
+            cache.clear();
+        }
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.evict(key);
+        }
+    }
+}
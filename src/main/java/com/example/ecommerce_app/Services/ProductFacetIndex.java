@@ -0,0 +1,120 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.PriceBandCount;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Product counts per (category, price band), maintained incrementally from product changes.
+ * Facet queries sum over this small matrix instead of grouping the product table.
+ * Readers use an immutable snapshot; writers copy only the category rows they change.
+ */
+@Service
+public class ProductFacetIndex implements ProductIndex {
+
+    private final double[] bandBoundaries;
+    private volatile Map<String, int[]> counts = Map.of();
+
+    public ProductFacetIndex(@Value("${products.facets.price-bands:50,100,250,500,1000}") double[] bandBoundaries) {
+        this.bandBoundaries = bandBoundaries.clone();
+        Arrays.sort(this.bandBoundaries);
+    }
+
+    @Override
+    public synchronized void rebuild(List<Product> products) {
+        Map<String, int[]> rebuilt = new HashMap<>();
+        for (Product product : products) {
+            rebuilt.computeIfAbsent(product.getCategory(), key -> new int[bandCount()])[bandOf(product.getPrice())]++;
+        }
+        counts = rebuilt;
+    }
+
+    @Override
+    public synchronized void apply(ProductChangedEvent event) {
+        Map<String, int[]> updated = new HashMap<>(counts);
+        if (event.before() != null) {
+            adjust(updated, event.before(), -1);
+        }
+        if (event.after() != null) {
+            adjust(updated, event.after(), 1);
+        }
+        counts = updated;
+    }
+
+    public int bandCount() {
+        return bandBoundaries.length + 1;
+    }
+
+    public double bandMin(int band) {
+        return band == 0 ? 0.0 : bandBoundaries[band - 1];
+    }
+
+    /** Exclusive upper bound of the band, or null for the open-ended top band. */
+    public Double bandMax(int band) {
+        return band < bandBoundaries.length ? bandBoundaries[band] : null;
+    }
+
+    public int bandOf(double price) {
+        int band = 0;
+        while (band < bandBoundaries.length && price >= bandBoundaries[band]) {
+            band++;
+        }
+        return band;
+    }
+
+    /** Product count per category, restricted to one price band when {@code band} is given. */
+    public Map<String, Integer> categoryCounts(Integer band) {
+        Map<String, Integer> result = new TreeMap<>();
+        counts.forEach((category, bands) -> {
+            int count = (band == null) ? Arrays.stream(bands).sum() : bands[band];
+            if (count > 0) {
+                result.put(category, count);
+            }
+        });
+        return result;
+    }
+
+    /** Product count per price band, restricted to one category when {@code category} is given. */
+    public List<PriceBandCount> priceBandCounts(String category) {
+        int[] totals = new int[bandCount()];
+        Map<String, int[]> snapshot = counts;
+        if (category != null) {
+            int[] bands = snapshot.get(category);
+            if (bands != null) {
+                System.arraycopy(bands, 0, totals, 0, totals.length);
+            }
+        } else {
+            for (int[] bands : snapshot.values()) {
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i] += bands[i];
+                }
+            }
+        }
+
+        List<PriceBandCount> result = new ArrayList<>(totals.length);
+        for (int band = 0; band < totals.length; band++) {
+            result.add(new PriceBandCount(band, bandMin(band), bandMax(band), totals[band]));
+        }
+        return result;
+    }
+
+    private void adjust(Map<String, int[]> target, Product product, int delta) {
+        int[] bands = target.get(product.getCategory());
+        bands = (bands == null) ? new int[bandCount()] : bands.clone();
+        bands[bandOf(product.getPrice())] += delta;
+        if (Arrays.stream(bands).allMatch(count -> count <= 0)) {
+            target.remove(product.getCategory());
+        } else {
+            target.put(product.getCategory(), bands);
+        }
+    }
+}
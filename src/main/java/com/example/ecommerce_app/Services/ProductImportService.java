@@ -0,0 +1,422 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.ProductImportReport;
+import com.example.ecommerce_app.DTO.ProductImportRow;
+import com.example.ecommerce_app.DTO.ProductNameKey;
+import com.example.ecommerce_app.Events.ProductsImportedEvent;
+import com.example.ecommerce_app.Repositories.ProductRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Creates or updates products in bulk from NDJSON or CSV, matching existing products by name, ignoring case.
+ * The input is read as a stream and handled {@code chunk-size} rows at a time: rows are validated in parallel,
+ * duplicate names are rejected in memory (the first occurrence wins), and each chunk is written as two JDBC
+ * batches (inserts and updates) in one transaction. Existing names are loaded once up front, so there is no
+ * lookup per row. If a batch hits a constraint, such as an image URL another product already uses, the chunk
+ * is retried row by row and only the offending rows are rejected.
+ * <p>
+ * A product with stock stripes keeps its quantity, which belongs to {@link StripedStockService} while they
+ * exist. Instead of a {@code ProductChangedEvent} per product, one {@link ProductsImportedEvent} is published
+ * once anything has been written.
+ */
+@Service
+public class ProductImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductImportService.class);
+
+    private static final int MAX_TEXT_LENGTH = 255;
+
+    private static final String INSERT_SQL =
+            "insert into product (name, price, quantity, description, image_url, category) values (?, ?, ?, ?, ?, ?)";
+
+    // Striped products keep their quantity; a missing quantity leaves it unchanged
+    private static final String UPDATE_SQL =
+            "update product set name = ?, price = ?, description = ?, image_url = ?, category = ?, " +
+            "quantity = case when exists (select 1 from product_stock_shards s where s.product_id = product.productid) " +
+            "then quantity else coalesce(cast(? as integer), quantity) end where productid = ?";
+
+    private static final List<String> CSV_COLUMNS = List.of("name", "price", "quantity", "description", "imageurl", "category");
+
+    private final ProductRepository productRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int chunkSize;
+    private final int maxReportedErrors;
+
+    public ProductImportService(ProductRepository productRepository,
+                                JdbcTemplate jdbcTemplate,
+                                ObjectMapper objectMapper,
+                                ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${products.import.chunk-size:1000}") int chunkSize,
+                                @Value("${products.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.productRepository = productRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.chunkSize = chunkSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    /** A row as read: its 1-based position among the input's rows, and either its values or why they could not be read. */
+    private record ParsedRow(long row, ProductImportRow value, String error) {}
+
+    /** Running totals of one import. */
+    private final class Progress {
+        final Map<String, ProductNameKey> existing;
+        final Map<String, Long> seen = new HashMap<>();
+        final List<ProductImportReport.RowError> errors = new ArrayList<>();
+        long rowsRead;
+        long rejected;
+        int created;
+        int updated;
+        boolean pricesChanged;
+
+        Progress(Map<String, ProductNameKey> existing) {
+            this.existing = existing;
+        }
+
+        void reject(long row, String name, String message) {
+            rejected++;
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new ProductImportReport.RowError(row, name, message));
+            }
+        }
+    }
+
+    /**
+     * Imports every row of {@code in}. Rows that cannot be read or fail validation are reported and skipped;
+     * the rest are written. Throws {@link IllegalArgumentException} if a CSV header lacks a required column.
+     */
+    public ProductImportReport importProducts(DataFormat format, InputStream in) {
+        Progress progress = new Progress(loadExisting());
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 64 * 1024);
+        try {
+            RowSource source = format == DataFormat.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader);
+            List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+            for (ParsedRow row = source.next(); row != null; row = source.next()) {
+                progress.rowsRead++;
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    importChunk(chunk, progress);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, progress);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            // Whatever committed before a failure is in the catalog, so listeners must hear about it either way
+            if (progress.created + progress.updated > 0) {
+                eventPublisher.publishEvent(new ProductsImportedEvent(progress.created, progress.updated, progress.pricesChanged));
+            }
+        }
+        log.info("Imported products: {} rows read, {} created, {} updated, {} rejected",
+                progress.rowsRead, progress.created, progress.updated, progress.rejected);
+        return new ProductImportReport(progress.rowsRead, progress.created, progress.updated, progress.rejected,
+                List.copyOf(progress.errors));
+    }
+
+    private Map<String, ProductNameKey> loadExisting() {
+        return readOnlyTransaction.execute(status -> {
+            Map<String, ProductNameKey> byName = new HashMap<>();
+            try (Stream<ProductNameKey> keys = productRepository.streamNameKeys()) {
+                keys.forEach(key -> byName.put(key.name().toLowerCase(Locale.ROOT), key));
+            }
+            return byName;
+        });
+    }
+
+    private void importChunk(List<ParsedRow> chunk, Progress progress) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        // Validation touches nothing shared, so it can use every core; everything after it is in input order
+        List<String> problems = chunk.parallelStream()
+                .map(row -> row.error() != null ? row.error()
+                        : row.value() == null ? "Not a product object" : validate(row.value()))
+                .toList();
+
+        List<ParsedRow> inserts = new ArrayList<>();
+        List<ParsedRow> updates = new ArrayList<>();
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow row = chunk.get(i);
+            String name = row.value() == null ? null : row.value().name();
+            if (problems.get(i) != null) {
+                progress.reject(row.row(), name, problems.get(i));
+                continue;
+            }
+            String key = name.trim().toLowerCase(Locale.ROOT);
+            Long first = progress.seen.putIfAbsent(key, row.row());
+            if (first != null) {
+                progress.reject(row.row(), name, "Duplicate of row " + first);
+            } else if (progress.existing.containsKey(key)) {
+                updates.add(row);
+            } else {
+                inserts.add(row);
+            }
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                if (!inserts.isEmpty()) {
+                    jdbcTemplate.batchUpdate(INSERT_SQL, inserts.stream().map(this::insertArgs).toList());
+                }
+                if (!updates.isEmpty()) {
+                    jdbcTemplate.batchUpdate(UPDATE_SQL, updates.stream().map(row -> updateArgs(row, progress)).toList());
+                }
+            });
+            progress.created += inserts.size();
+            updates.forEach(row -> recordUpdated(row, progress));
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Product import batch rejected, retrying its {} rows one by one", inserts.size() + updates.size(), e);
+            inserts.forEach(row -> writeOne(row, INSERT_SQL, insertArgs(row), () -> progress.created++, progress));
+            updates.forEach(row -> writeOne(row, UPDATE_SQL, updateArgs(row, progress), () -> recordUpdated(row, progress), progress));
+        }
+    }
+
+    private void writeOne(ParsedRow row, String sql, Object[] args, Runnable onSuccess, Progress progress) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(sql, args));
+            onSuccess.run();
+        } catch (DataIntegrityViolationException e) {
+            progress.reject(row.row(), row.value().name(), "Conflicts with another product, e.g. an image URL already in use");
+        }
+    }
+
+    private void recordUpdated(ParsedRow row, Progress progress) {
+        progress.updated++;
+        ProductNameKey before = progress.existing.get(row.value().name().trim().toLowerCase(Locale.ROOT));
+        if (CartPricingEngine.toCents(before.price()) != CartPricingEngine.toCents(row.value().price())) {
+            progress.pricesChanged = true;
+        }
+    }
+
+    private Object[] insertArgs(ParsedRow row) {
+        ProductImportRow p = row.value();
+        return new Object[] {p.name().trim(), p.price(), p.quantity() == null ? 0 : p.quantity(),
+                p.description(), p.imageURL().trim(), p.category().trim()};
+    }
+
+    private Object[] updateArgs(ParsedRow row, Progress progress) {
+        ProductImportRow p = row.value();
+        long productId = progress.existing.get(p.name().trim().toLowerCase(Locale.ROOT)).productID();
+        return new Object[] {p.name().trim(), p.price(), p.description(), p.imageURL().trim(), p.category().trim(),
+                p.quantity(), productId};
+    }
+
+    static String validate(ProductImportRow row) {
+        String text = checkText("name", row.name());
+        if (text == null) text = checkText("description", row.description());
+        if (text == null) text = checkText("imageURL", row.imageURL());
+        if (text == null) text = checkText("category", row.category());
+        if (text != null) {
+            return text;
+        }
+        if (row.price() == null || !Double.isFinite(row.price()) || row.price() < 0) {
+            return "price must be a number of at least 0";
+        }
+        if (row.quantity() != null && row.quantity() < 0) {
+            return "quantity must not be negative";
+        }
+        return null;
+    }
+
+    private static String checkText(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return field + " is required";
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            return field + " is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    private interface RowSource {
+        /** The next row, or null at the end of the input. */
+        ParsedRow next() throws IOException;
+    }
+
+    // One JSON object per line; blank lines are skipped and not counted as rows
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long row;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+            } while (line != null && line.isBlank());
+            if (line == null) {
+                return null;
+            }
+            row++;
+            try {
+                return new ParsedRow(row, objectMapper.readValue(line, ProductImportRow.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(row, null, "Not a valid product object: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    // RFC 4180 with a required header naming the columns in any order and case; extra columns are ignored
+    private static final class CsvRowSource implements RowSource {
+        private final CsvReader reader;
+        private final int[] columnIndex = new int[CSV_COLUMNS.size()];
+        private long row;
+
+        CsvRowSource(Reader in) throws IOException {
+            this.reader = new CsvReader(in);
+            List<String> header = reader.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV input is empty, expected a header row");
+            }
+            for (int i = 0; i < columnIndex.length; i++) {
+                columnIndex[i] = -1;
+            }
+            for (int i = 0; i < header.size(); i++) {
+                int column = CSV_COLUMNS.indexOf(header.get(i).trim().toLowerCase(Locale.ROOT));
+                if (column >= 0) {
+                    columnIndex[column] = i;
+                }
+            }
+            for (int i = 0; i < columnIndex.length; i++) {
+                // quantity may be left out entirely, like a missing NDJSON field
+                if (columnIndex[i] < 0 && !CSV_COLUMNS.get(i).equals("quantity")) {
+                    throw new IllegalArgumentException("CSV header has no '" + CSV_COLUMNS.get(i) + "' column");
+                }
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> fields;
+            do {
+                fields = reader.readRecord();
+            } while (fields != null && fields.size() == 1 && fields.getFirst().isBlank());
+            if (fields == null) {
+                return null;
+            }
+            row++;
+            String name = field(fields, 0);
+            try {
+                String price = field(fields, 1);
+                String quantity = field(fields, 2);
+                return new ParsedRow(row, new ProductImportRow(name,
+                        price == null || price.isBlank() ? null : Double.valueOf(price.trim()),
+                        quantity == null || quantity.isBlank() ? null : Integer.valueOf(quantity.trim()),
+                        field(fields, 3), field(fields, 4), field(fields, 5)), null);
+            } catch (NumberFormatException e) {
+                return new ParsedRow(row, new ProductImportRow(name, null, null, null, null, null),
+                        "price or quantity is not a number");
+            }
+        }
+
+        private String field(List<String> fields, int column) {
+            int index = columnIndex[column];
+            return index >= 0 && index < fields.size() ? fields.get(index) : null;
+        }
+    }
+
+    /** Reads CSV records one at a time, including quoted fields spanning lines. */
+    static final class CsvReader {
+        private final Reader in;
+        private int pushedBack = -2;
+
+        CsvReader(Reader in) {
+            this.in = in;
+        }
+
+        private int read() throws IOException {
+            if (pushedBack != -2) {
+                int c = pushedBack;
+                pushedBack = -2;
+                return c;
+            }
+            return in.read();
+        }
+
+        /** The next record's fields, or null at the end of the input. */
+        List<String> readRecord() throws IOException {
+            int c = read();
+            if (c == -1) {
+                return null;
+            }
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            while (true) {
+                if (quoted) {
+                    if (c == -1) {
+                        fields.add(field.toString());
+                        return fields;
+                    }
+                    if (c == '"') {
+                        int next = read();
+                        if (next == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            c = next;
+                            continue;
+                        }
+                    } else {
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n' || c == '\r' || c == -1) {
+                    if (c == '\r') {
+                        int next = read();
+                        if (next != '\n') {
+                            pushedBack = next;
+                        }
+                    }
+                    fields.add(field.toString());
+                    return fields;
+                } else {
+                    field.append((char) c);
+                }
+                c = read();
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+
+import java.util.List;
+
+/**
+ * An in-memory read structure over the product catalog. Implementations are built once from
+ * the full catalog by {@link ProductIndexMaintainer} and then kept current from committed
+ * {@link ProductChangedEvent}s, so only changes made through {@link ProductService} are seen.
+ */
+public interface ProductIndex {
+
+    void rebuild(List<Product> products);
+
+    void apply(ProductChangedEvent event);
+}
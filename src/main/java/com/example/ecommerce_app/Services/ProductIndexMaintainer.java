@@ -0,0 +1,72 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Events.ProductsImportedEvent;
+import com.example.ecommerce_app.Model.Product;
+import com.example.ecommerce_app.Repositories.ProductRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the catalog once at startup (in keyset chunks, after {@code DataLoader} has run) to build every
+ * {@link ProductIndex}, then forwards product changes to them only after they commit.
+ */
+@Component
+public class ProductIndexMaintainer {
+
+    private static final Logger log = LoggerFactory.getLogger(ProductIndexMaintainer.class);
+
+    private final ProductRepository productRepository;
+    private final List<ProductIndex> indexes;
+    private final int chunkSize;
+
+    public ProductIndexMaintainer(ProductRepository productRepository,
+                                  List<ProductIndex> indexes,
+                                  @Value("${products.index.load-chunk-size:1000}") int chunkSize) {
+        this.productRepository = productRepository;
+        this.indexes = indexes;
+        this.chunkSize = chunkSize;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAll() {
+        List<Product> catalog = new ArrayList<>();
+        long after = 0L;
+        List<Product> chunk;
+        do {
+            chunk = productRepository.findByProductIDGreaterThanOrderByProductIDAsc(after, Limit.of(chunkSize));
+            catalog.addAll(chunk);
+            if (!chunk.isEmpty()) {
+                after = chunk.getLast().getProductID();
+            }
+        } while (chunk.size() == chunkSize);
+
+        for (ProductIndex index : indexes) {
+            index.rebuild(catalog);
+        }
+        log.info("Built {} product indexes over {} products", indexes.size(), catalog.size());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        for (ProductIndex index : indexes) {
+            index.apply(event);
+        }
+    }
+
+    // Rebuilding once from the committed catalog is cheaper than replaying a bulk import product by product
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductsImported(ProductsImportedEvent event) {
+        rebuildAll();
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Prefix trie over product names for search-as-you-type suggestions.
+ * Each name is inserted under its full lowercased form and under every later word start,
+ * so "mou" suggests "Wireless Mouse". Children are kept in sorted parallel arrays rather
+ * than maps, which keeps nodes small and makes a depth-first walk yield names in order.
+ */
+@Service
+public class ProductNameTrie implements ProductIndex {
+
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, String> names = new HashMap<>();
+    private Node root = new Node();
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            names.clear();
+            root = new Node();
+            for (Product product : products) {
+                insert(product.getProductID(), product.getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            remove(event.productId());
+            if (event.after() != null) {
+                insert(event.productId(), event.after().getName());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<String> suggest(String prefix, Integer limit) {
+        String key = normalize(prefix);
+        int max = (limit == null || limit <= 0) ? DEFAULT_SUGGESTIONS : Math.min(limit, MAX_SUGGESTIONS);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            for (int i = 0; i < key.length() && node != null; i++) {
+                node = node.child(key.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            Set<String> suggestions = new LinkedHashSet<>();
+            collect(node, suggestions, max);
+            return new ArrayList<>(suggestions);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void collect(Node node, Set<String> suggestions, int max) {
+        if (node.products != null) {
+            for (String name : node.products.values()) {
+                suggestions.add(name);
+                if (suggestions.size() >= max) {
+                    return;
+                }
+            }
+        }
+        for (Node child : node.children) {
+            collect(child, suggestions, max);
+            if (suggestions.size() >= max) {
+                return;
+            }
+        }
+    }
+
+    private void insert(long productId, String name) {
+        if (name == null || name.isBlank()) {
+            return;
+        }
+        names.put(productId, name);
+        for (String key : keysFor(name)) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.getOrAddChild(key.charAt(i));
+            }
+            if (node.products == null) {
+                node.products = new TreeMap<>();
+            }
+            node.products.put(productId, name);
+        }
+    }
+
+    private void remove(long productId) {
+        String name = names.remove(productId);
+        if (name == null) {
+            return;
+        }
+        for (String key : keysFor(name)) {
+            removeKey(root, key, 0, productId);
+        }
+    }
+
+    // Returns true when the node is left empty so the parent can unlink it
+    private static boolean removeKey(Node node, String key, int depth, long productId) {
+        if (depth == key.length()) {
+            if (node.products != null) {
+                node.products.remove(productId);
+                if (node.products.isEmpty()) {
+                    node.products = null;
+                }
+            }
+        } else {
+            char c = key.charAt(depth);
+            Node child = node.child(c);
+            if (child != null && removeKey(child, key, depth + 1, productId)) {
+                node.removeChild(c);
+            }
+        }
+        return node.products == null && node.keys.length == 0;
+    }
+
+    private static List<String> keysFor(String name) {
+        String normalized = normalize(name);
+        List<String> keys = new ArrayList<>();
+        keys.add(normalized);
+        for (int i = 1; i < normalized.length(); i++) {
+            if (normalized.charAt(i - 1) == ' ') {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Node {
+        private static final char[] NO_KEYS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        char[] keys = NO_KEYS;
+        Node[] children = NO_CHILDREN;
+        Map<Long, String> products;
+
+        Node child(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            return i >= 0 ? children[i] : null;
+        }
+
+        Node getOrAddChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i >= 0) {
+                return children[i];
+            }
+            int at = -(i + 1);
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, at);
+            System.arraycopy(children, 0, newChildren, 0, at);
+            System.arraycopy(keys, at, newKeys, at + 1, keys.length - at);
+            System.arraycopy(children, at, newChildren, at + 1, children.length - at);
+            Node child = new Node();
+            newKeys[at] = c;
+            newChildren[at] = child;
+            keys = newKeys;
+            children = newChildren;
+            return child;
+        }
+
+        void removeChild(char c) {
+            int i = Arrays.binarySearch(keys, c);
+            if (i < 0) {
+                return;
+            }
+            char[] newKeys = new char[keys.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(keys, 0, newKeys, 0, i);
+            System.arraycopy(children, 0, newChildren, 0, i);
+            System.arraycopy(keys, i + 1, newKeys, i, keys.length - i - 1);
+            System.arraycopy(children, i + 1, newChildren, i, children.length - i - 1);
+            keys = newKeys;
+            children = newChildren;
+        }
+    }
+}
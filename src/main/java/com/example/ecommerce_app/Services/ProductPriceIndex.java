@@ -0,0 +1,202 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Price-ordered index of product ids, kept as parallel primitive arrays sorted by (price, productID):
+ * one over the whole catalog and one per category. A range lookup is two binary searches, and a page
+ * is a slice of the id array, so neither depends on catalog size.
+ * Readers see immutable snapshots; writers build a new snapshot under the object monitor.
+ */
+@Service
+public class ProductPriceIndex implements ProductIndex {
+
+    public record RangeSlice(List<Long> ids, int total) {}
+
+    private record Entry(long productId, double price, String category) {}
+
+    private final Map<Long, Entry> entries = new HashMap<>();
+    private volatile PriceArrays all = PriceArrays.EMPTY;
+    private volatile Map<String, PriceArrays> byCategory = Map.of();
+
+    @Override
+    public synchronized void rebuild(List<Product> products) {
+        entries.clear();
+        for (Product product : products) {
+            entries.put(product.getProductID(), new Entry(product.getProductID(), product.getPrice(), product.getCategory()));
+        }
+
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.comparingDouble(Entry::price).thenComparingLong(Entry::productId));
+
+        Map<String, List<Entry>> grouped = new HashMap<>();
+        for (Entry entry : sorted) {
+            grouped.computeIfAbsent(entry.category(), key -> new ArrayList<>()).add(entry);
+        }
+        Map<String, PriceArrays> categories = new HashMap<>();
+        grouped.forEach((category, group) -> categories.put(category, PriceArrays.of(group)));
+
+        all = PriceArrays.of(sorted);
+        byCategory = categories;
+    }
+
+    @Override
+    public synchronized void apply(ProductChangedEvent event) {
+        PriceArrays newAll = all;
+        Map<String, PriceArrays> newByCategory = new HashMap<>(byCategory);
+
+        Entry old = entries.remove(event.productId());
+        if (old != null) {
+            newAll = newAll.without(old.productId(), old.price());
+            PriceArrays category = newByCategory.get(old.category());
+            if (category != null) {
+                category = category.without(old.productId(), old.price());
+                if (category.size() == 0) {
+                    newByCategory.remove(old.category());
+                } else {
+                    newByCategory.put(old.category(), category);
+                }
+            }
+        }
+
+        Product after = event.after();
+        if (after != null) {
+            Entry entry = new Entry(after.getProductID(), after.getPrice(), after.getCategory());
+            entries.put(entry.productId(), entry);
+            newAll = newAll.with(entry.productId(), entry.price());
+            newByCategory.merge(entry.category(), PriceArrays.EMPTY.with(entry.productId(), entry.price()),
+                    (existing, ignored) -> existing.with(entry.productId(), entry.price()));
+        }
+
+        all = newAll;
+        byCategory = newByCategory;
+    }
+
+    /** Ids of every product priced within [min, max], cheapest first. */
+    public List<Long> rangeIds(double min, double max) {
+        PriceArrays arrays = all;
+        int from = arrays.lowerBound(min);
+        int to = arrays.upperBound(max);
+        return from < to ? arrays.ids(from, to) : List.of();
+    }
+
+    /** One page of the ids priced within [min, max], optionally restricted to a category, plus the total match count. */
+    public RangeSlice rangePage(double min, double max, String category, int offset, int limit) {
+        PriceArrays arrays = (category == null) ? all : byCategory.getOrDefault(category, PriceArrays.EMPTY);
+        int from = arrays.lowerBound(min);
+        int to = arrays.upperBound(max);
+        if (from >= to) {
+            return new RangeSlice(List.of(), 0);
+        }
+        int total = to - from;
+        int start = (int) Math.min((long) from + offset, to);
+        int end = (int) Math.min((long) start + limit, to);
+        return new RangeSlice(arrays.ids(start, end), total);
+    }
+
+    private static final class PriceArrays {
+        static final PriceArrays EMPTY = new PriceArrays(new double[0], new long[0]);
+
+        final double[] prices;
+        final long[] ids;
+
+        private PriceArrays(double[] prices, long[] ids) {
+            this.prices = prices;
+            this.ids = ids;
+        }
+
+        static PriceArrays of(List<Entry> sorted) {
+            double[] prices = new double[sorted.size()];
+            long[] ids = new long[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                prices[i] = sorted.get(i).price();
+                ids[i] = sorted.get(i).productId();
+            }
+            return new PriceArrays(prices, ids);
+        }
+
+        int size() {
+            return ids.length;
+        }
+
+        // First position whose price is >= min
+        int lowerBound(double min) {
+            int lo = 0, hi = prices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] < min) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // First position whose price is > max
+        int upperBound(double max) {
+            int lo = 0, hi = prices.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (prices[mid] <= max) lo = mid + 1; else hi = mid;
+            }
+            return lo;
+        }
+
+        // Position of (price, id) in the (price, id) ordering; negative (-(insertion point) - 1) if absent
+        int position(double price, long id) {
+            int lo = 0, hi = prices.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                int cmp = Double.compare(prices[mid], price);
+                if (cmp == 0) cmp = Long.compare(ids[mid], id);
+                if (cmp < 0) lo = mid + 1;
+                else if (cmp > 0) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        List<Long> ids(int from, int to) {
+            List<Long> slice = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                slice.add(ids[i]);
+            }
+            return slice;
+        }
+
+        PriceArrays with(long id, double price) {
+            int at = position(price, id);
+            if (at >= 0) {
+                return this;
+            }
+            at = -(at + 1);
+            double[] newPrices = new double[prices.length + 1];
+            long[] newIds = new long[ids.length + 1];
+            System.arraycopy(prices, 0, newPrices, 0, at);
+            System.arraycopy(ids, 0, newIds, 0, at);
+            newPrices[at] = price;
+            newIds[at] = id;
+            System.arraycopy(prices, at, newPrices, at + 1, prices.length - at);
+            System.arraycopy(ids, at, newIds, at + 1, ids.length - at);
+            return new PriceArrays(newPrices, newIds);
+        }
+
+        PriceArrays without(long id, double price) {
+            int at = position(price, id);
+            if (at < 0) {
+                return this;
+            }
+            double[] newPrices = Arrays.copyOf(prices, prices.length - 1);
+            long[] newIds = Arrays.copyOf(ids, ids.length - 1);
+            System.arraycopy(prices, at + 1, newPrices, at, prices.length - at - 1);
+            System.arraycopy(ids, at + 1, newIds, at, ids.length - at - 1);
+            return new PriceArrays(newPrices, newIds);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.ProductSummary;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Inverted index over product name, category and description.
+ * Every query token must match (exactly or as a prefix of an indexed term), and matches are ranked
+ * by a field-weighted tf-idf score so that hits in the name outrank hits in the description.
+ */
+@Service
+public class ProductSearchIndex implements ProductIndex {
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float CATEGORY_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    // A prefix hit is worth less than an exact hit; very short prefixes are not expanded at all
+    private static final float PREFIX_FACTOR = 0.5f;
+    private static final int MIN_PREFIX_LENGTH = 2;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Product> documents = new HashMap<>();
+    private final Map<Long, Map<String, Float>> documentTerms = new HashMap<>();
+    private final TreeMap<String, Map<Long, Float>> postings = new TreeMap<>();
+
+    @Override
+    public void rebuild(List<Product> products) {
+        lock.writeLock().lock();
+        try {
+            documents.clear();
+            documentTerms.clear();
+            postings.clear();
+            for (Product product : products) {
+                addDocument(Product.copyOf(product));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void apply(ProductChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removeDocument(event.productId());
+            if (event.after() != null) {
+                addDocument(event.after());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<ProductSummary> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<Long, Float> scores = null;
+            for (String token : tokens) {
+                Map<Long, Float> tokenScores = scoreToken(token);
+                scores = (scores == null) ? tokenScores : intersect(scores, tokenScores);
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            return topResults(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        return Arrays.stream(text.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{Nd}]+"))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    // Best score per document for one query token across its exact and prefix-expanded terms
+    private Map<Long, Float> scoreToken(String token) {
+        Map<Long, Float> scores = new HashMap<>();
+        Map<String, Map<Long, Float>> candidates = (token.length() >= MIN_PREFIX_LENGTH)
+                ? postings.subMap(token, true, token + Character.MAX_VALUE, false)
+                : (postings.containsKey(token) ? Map.of(token, postings.get(token)) : Map.of());
+
+        for (Map.Entry<String, Map<Long, Float>> entry : candidates.entrySet()) {
+            float matchFactor = entry.getKey().equals(token) ? 1.0f : PREFIX_FACTOR;
+            float idf = (float) Math.log(1.0 + (double) documents.size() / entry.getValue().size());
+            for (Map.Entry<Long, Float> posting : entry.getValue().entrySet()) {
+                float score = posting.getValue() * idf * matchFactor;
+                scores.merge(posting.getKey(), score, Math::max);
+            }
+        }
+        return scores;
+    }
+
+    private static Map<Long, Float> intersect(Map<Long, Float> left, Map<Long, Float> right) {
+        Map<Long, Float> smaller = left.size() <= right.size() ? left : right;
+        Map<Long, Float> larger = smaller == left ? right : left;
+        Map<Long, Float> result = new HashMap<>();
+        for (Map.Entry<Long, Float> entry : smaller.entrySet()) {
+            Float other = larger.get(entry.getKey());
+            if (other != null) {
+                result.put(entry.getKey(), entry.getValue() + other);
+            }
+        }
+        return result;
+    }
+
+    private List<ProductSummary> topResults(Map<Long, Float> scores, int limit) {
+        Comparator<Map.Entry<Long, Float>> ranking = Map.Entry.<Long, Float>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Float>comparingByKey().reversed());
+
+        // Min-heap of the best `limit` hits, so ranking costs O(n log k) instead of a full sort
+        PriorityQueue<Map.Entry<Long, Float>> top = new PriorityQueue<>(limit + 1, ranking);
+        for (Map.Entry<Long, Float> entry : scores.entrySet()) {
+            top.offer(entry);
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<ProductSummary> results = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            results.add(ProductSummary.of(documents.get(top.poll().getKey())));
+        }
+        return results.reversed();
+    }
+
+    private void addDocument(Product product) {
+        Map<String, Float> terms = new HashMap<>();
+        addField(terms, product.getName(), NAME_WEIGHT);
+        addField(terms, product.getCategory(), CATEGORY_WEIGHT);
+        addField(terms, product.getDescription(), DESCRIPTION_WEIGHT);
+
+        documents.put(product.getProductID(), product);
+        documentTerms.put(product.getProductID(), terms);
+        for (Map.Entry<String, Float> term : terms.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), key -> new HashMap<>())
+                    .put(product.getProductID(), term.getValue());
+        }
+    }
+
+    private void removeDocument(long productId) {
+        documents.remove(productId);
+        Map<String, Float> terms = documentTerms.remove(productId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms.keySet()) {
+            Map<Long, Float> docs = postings.get(term);
+            if (docs != null) {
+                docs.remove(productId);
+                if (docs.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+    }
+
+    private static void addField(Map<String, Float> terms, String text, float weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Float::sum);
+        }
+    }
+}
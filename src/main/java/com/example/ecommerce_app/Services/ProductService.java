@@ -1,36 +1,69 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Config.CacheConfig;
+import com.example.ecommerce_app.DTO.ProductBrowseResponse;
+import com.example.ecommerce_app.DTO.ProductPage;
+import com.example.ecommerce_app.DTO.ProductRangePage;
+import com.example.ecommerce_app.DTO.ProductSummary;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
 import com.example.ecommerce_app.Model.Product;
 import com.example.ecommerce_app.Repositories.ProductRepository;
 import com.example.ecommerce_app.exception.ProductAlreadyExistsException;
 import com.example.ecommerce_app.exception.ProductNotExistException;
 import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 public class ProductService {
+// Well under SQL Server's 2100 parameters per statement
+private static final int ID_FETCH_CHUNK = 1000;
+
 private ProductRepository productRepository;
+private final ApplicationEventPublisher eventPublisher;
+private final ProductPriceIndex productPriceIndex;
+private final ProductFacetIndex productFacetIndex;
+private final int defaultPageSize;
+private final int maxPageSize;
 
-public ProductService(ProductRepository productRepository) {
+public ProductService(ProductRepository productRepository,
+                      ApplicationEventPublisher eventPublisher,
+                      ProductPriceIndex productPriceIndex,
+                      ProductFacetIndex productFacetIndex,
+                      @Value("${products.page.default-size:20}") int defaultPageSize,
+                      @Value("${products.page.max-size:100}") int maxPageSize) {
     this.productRepository = productRepository;
+    this.eventPublisher = eventPublisher;
+    this.productPriceIndex = productPriceIndex;
+    this.productFacetIndex = productFacetIndex;
+    this.defaultPageSize = defaultPageSize;
+    this.maxPageSize = maxPageSize;
 }
 
 public Product createProduct(Product product) throws ProductAlreadyExistsException {
 if(productRepository.findByNameIgnoreCase(product.getName()).isPresent()){
     throw new ProductAlreadyExistsException();
 }
-return productRepository.save(product);
+Product saved = productRepository.save(product);
+eventPublisher.publishEvent(ProductChangedEvent.created(saved));
+return saved;
 }
 
 public Product updateProduct(Long ID,Product product) throws ProductNotExistException {
  Product newData = new Product();
  Optional<Product> productOptional = productRepository.findById(ID);
  if(productOptional.isPresent()){
+     Product before = Product.copyOf(productOptional.get());
      newData.setProductID(ID);
  newData.setName(product.getName());
  newData.setPrice(product.getPrice());
@@ -38,24 +71,107 @@ public Product updateProduct(Long ID,Product product) throws ProductNotExistExce
  newData.setCategory(product.getCategory());
  newData.setImageURL(product.getImageURL());
  newData.setDescription(product.getDescription());
- return productRepository.save(newData);}
+ Product saved = productRepository.save(newData);
+ eventPublisher.publishEvent(ProductChangedEvent.updated(before, saved));
+ return saved;}
  else
-     productRepository.save(product);
+     eventPublisher.publishEvent(ProductChangedEvent.created(productRepository.save(product)));
      throw new ProductNotExistException();
 }
 
 public void deleteProduct(Long id) throws ProductNotExistException {
     Optional<Product> productOptional = productRepository.findById(id);
     if(productOptional.isPresent()){
-    productRepository.deleteById(id);}
+    Product before = Product.copyOf(productOptional.get());
+    productRepository.deleteById(id);
+    eventPublisher.publishEvent(ProductChangedEvent.deleted(before));}
     else{
         throw new ProductNotExistException();
     }
 }
 
+// Cached reads. Entries are invalidated by ProductCacheInvalidator once a mutation's transaction completes.
+@Cacheable(cacheNames = CacheConfig.PRODUCTS, key = "#id")
+public Product getProductById(Long id) {
+    return productRepository.findById(id)
+            .orElseThrow(() -> new RuntimeException("Product not found with id: " + id));
+}
+
+@Cacheable(cacheNames = CacheConfig.PRODUCTS_BY_CATEGORY, key = "#category")
+public List<Product> getProductsByCategory(String category) {
+    return List.copyOf(productRepository.findByCategory(category));
+}
+
+@Cacheable(cacheNames = CacheConfig.PRODUCT_SEARCH, key = "#name.toLowerCase(T(java.util.Locale).ROOT)")
+public List<Product> searchProductsByName(String name) {
+    return List.copyOf(productRepository.findByNameContainingIgnoreCase(name));
+}
+
+// Range lookups are answered by the in-memory price index; the database is only hit by primary key,
+// ID_FETCH_CHUNK ids per query so a broad range never becomes one IN list past the driver's parameter limit
 public List<Product> getProductsInRange(double low, double high) {
-    List<Product> products = productRepository.findByPriceBetween(low, high);
-    return products;
+    List<Long> ids = productPriceIndex.rangeIds(low, high);
+    Map<Long, Product> products = new HashMap<>(ids.size());
+    for (int from = 0; from < ids.size(); from += ID_FETCH_CHUNK) {
+        for (Product product : productRepository.findAllById(ids.subList(from, Math.min(from + ID_FETCH_CHUNK, ids.size())))) {
+            products.put(product.getProductID(), product);
+        }
+    }
+    return ids.stream().map(products::get).filter(product -> product != null).toList();
+}
+
+public ProductRangePage getProductsInRange(double low, double high, String category, Integer page, Integer size) {
+    int pageSize = resolvePageSize(size);
+    int pageNumber = (page == null || page < 0) ? 0 : page;
+    String categoryFilter = (category == null || category.isEmpty()) ? null : category;
+
+    // A long product, clamped, so a huge page number lands past the end instead of overflowing into a negative offset
+    int offset = (int) Math.min((long) pageNumber * pageSize, Integer.MAX_VALUE);
+    ProductPriceIndex.RangeSlice slice = productPriceIndex.rangePage(low, high, categoryFilter, offset, pageSize);
+    Map<Long, ProductSummary> summaries = new HashMap<>();
+    if (!slice.ids().isEmpty()) {
+        for (ProductSummary summary : productRepository.findSummariesByIds(slice.ids())) {
+            summaries.put(summary.productID(), summary);
+        }
+    }
+    List<ProductSummary> items = slice.ids().stream().map(summaries::get).filter(summary -> summary != null).toList();
+    return new ProductRangePage(items, pageNumber, pageSize, slice.total());
+}
+
+public ProductBrowseResponse browse(String category, Integer band, Integer page, Integer size) {
+    String categoryFilter = (category == null || category.isEmpty()) ? null : category;
+    double low = Double.NEGATIVE_INFINITY;
+    double high = Double.POSITIVE_INFINITY;
+    if (band != null) {
+        if (band < 0 || band >= productFacetIndex.bandCount()) {
+            throw new IllegalArgumentException("Price band must be between 0 and " + (productFacetIndex.bandCount() - 1));
+        }
+        low = productFacetIndex.bandMin(band);
+        Double bandMax = productFacetIndex.bandMax(band);
+        // Bands are half-open, the price index range is inclusive
+        high = (bandMax == null) ? Double.POSITIVE_INFINITY : Math.nextDown(bandMax);
+    }
+
+    return new ProductBrowseResponse(
+            getProductsInRange(low, high, categoryFilter, page, size),
+            productFacetIndex.categoryCounts(band),
+            productFacetIndex.priceBandCounts(categoryFilter));
+}
+
+public int resolvePageSize(Integer size) {
+    return (size == null || size <= 0) ? defaultPageSize : Math.min(size, maxPageSize);
+}
+
+public ProductPage getProductPage(Long after, Integer size) {
+    int pageSize = resolvePageSize(size);
+    long cursor = (after == null) ? 0L : after;
+
+    // Ask for one extra row so we know whether another page exists without a count query
+    List<ProductSummary> rows = productRepository.findSummariesAfter(cursor, Limit.of(pageSize + 1));
+    boolean hasMore = rows.size() > pageSize;
+    List<ProductSummary> items = hasMore ? rows.subList(0, pageSize) : rows;
+    Long nextCursor = hasMore ? items.getLast().productID() : null;
+    return new ProductPage(List.copyOf(items), nextCursor, hasMore);
 }
 
 }
@@ -0,0 +1,31 @@
+package com.example.ecommerce_app.Services;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+/**
+ * Rejects access tokens that were revoked, by token id or by session, after they were issued. Sits in front
+ * of the verifying (and caching) decoder, so a revocation takes effect on the very next request even for
+ * tokens whose verification is cached.
+ */
+public class RevocationCheckingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final TokenRevocationList revocations;
+
+    public RevocationCheckingJwtDecoder(JwtDecoder delegate, TokenRevocationList revocations) {
+        this.delegate = delegate;
+        this.revocations = revocations;
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        Jwt jwt = delegate.decode(token);
+        if (revocations.isRevoked(jwt.getId()) || revocations.isRevoked(jwt.getClaimAsString(JwtTokenService.SESSION_CLAIM))) {
+            throw new BadJwtException("Token has been revoked");
+        }
+        return jwt;
+    }
+}
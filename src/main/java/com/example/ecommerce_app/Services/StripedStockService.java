@@ -0,0 +1,189 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.StockStripes;
+import com.example.ecommerce_app.Model.ProductStockShard;
+import com.example.ecommerce_app.Repositories.ProductStockShardRepository;
+import jakarta.transaction.Transactional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Striped stock for flash-sale products. A striped product's stock lives in N
+ * {@link ProductStockShard} rows; each checkout starts at a random stripe, so concurrent buyers wait on
+ * different row locks instead of all queueing on the one product row. {@code Product.quantity} becomes
+ * a read-only total that {@link #reconcile()} refreshes from the stripes.
+ * <p>
+ * The stripe counts cached here are only a routing hint: the stripe rows themselves decide whether a
+ * product is striped, so a stale hint costs one extra query but never loses or invents stock.
+ */
+@Service
+public class StripedStockService {
+
+    public enum Draw { TAKEN, INSUFFICIENT, NOT_STRIPED }
+
+    private static final String TAKE_FROM_STRIPE_SQL =
+            "update product_stock_shards set quantity = quantity - ? where product_id = ? and shard_no = ? and quantity >= ?";
+    private static final String GIVE_TO_STRIPE_SQL =
+            "update product_stock_shards set quantity = quantity + ? where product_id = ? and shard_no = ?";
+    private static final String LOCK_STRIPES_SQL =
+            "select id, quantity from product_stock_shards where product_id = ? order by shard_no for update";
+    private static final String RECONCILE_SQL =
+            "update product p set quantity = (select sum(s.quantity) from product_stock_shards s where s.product_id = p.productid) "
+                    + "where exists (select 1 from product_stock_shards s where s.product_id = p.productid)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductStockShardRepository shardRepository;
+    private final int maxStripes;
+    private final Map<Long, Integer> stripeCounts = new ConcurrentHashMap<>();
+
+    public StripedStockService(JdbcTemplate jdbcTemplate,
+                               ProductStockShardRepository shardRepository,
+                               @Value("${inventory.striping.max-stripes:64}") int maxStripes) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.shardRepository = shardRepository;
+        this.maxStripes = maxStripes;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadStripeCounts() {
+        stripeCounts.clear();
+        for (Object[] row : shardRepository.countShardsPerProduct()) {
+            stripeCounts.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+    }
+
+    public boolean isStriped(long productId) {
+        return stripeCounts.containsKey(productId);
+    }
+
+    /** Splits the product's current stock evenly over {@code stripes} rows, re-striping it if already striped. */
+    @Transactional
+    public StockStripes enable(long productId, int stripes) {
+        if (stripes < 2 || stripes > maxStripes) {
+            throw new IllegalArgumentException("Stripe count must be between 2 and " + maxStripes);
+        }
+        int quantity = merge(productId);
+        for (int shard = 0; shard < stripes; shard++) {
+            int share = quantity / stripes + (shard < quantity % stripes ? 1 : 0);
+            shardRepository.save(new ProductStockShard(productId, shard, share));
+        }
+        stripeCounts.put(productId, stripes);
+        return new StockStripes(productId, stripes, quantity);
+    }
+
+    /** Folds the stripes back into {@code Product.quantity} and returns the product to single-row stock. */
+    @Transactional
+    public StockStripes disable(long productId) {
+        int quantity = merge(productId);
+        stripeCounts.remove(productId);
+        return new StockStripes(productId, 0, quantity);
+    }
+
+    /**
+     * Takes {@code quantity} units from the product's stripes. Tries one stripe at a time from a random
+     * starting point; only if no single stripe can cover the amount are all stripes locked and drained in order.
+     */
+    public Draw take(long productId, int quantity) {
+        int stripes = stripeCount(productId);
+        if (stripes == 0) {
+            return Draw.NOT_STRIPED;
+        }
+        int start = ThreadLocalRandom.current().nextInt(stripes);
+        for (int i = 0; i < stripes; i++) {
+            int shard = (start + i) % stripes;
+            if (jdbcTemplate.update(TAKE_FROM_STRIPE_SQL, quantity, productId, shard, quantity) == 1) {
+                return Draw.TAKEN;
+            }
+        }
+
+        // Sold out is the common case at the end of a sale: answer it from a plain read, without locking every stripe
+        Long unlocked = jdbcTemplate.queryForObject(
+                "select sum(quantity) from product_stock_shards where product_id = ?", Long.class, productId);
+        if (unlocked != null && unlocked < quantity) {
+            return Draw.INSUFFICIENT;
+        }
+        List<long[]> locked = jdbcTemplate.query(LOCK_STRIPES_SQL,
+                (rs, rowNum) -> new long[]{rs.getLong("id"), rs.getInt("quantity")}, productId);
+        if (locked.isEmpty()) {
+            stripeCounts.remove(productId);
+            return Draw.NOT_STRIPED;
+        }
+        long available = locked.stream().mapToLong(stripe -> stripe[1]).sum();
+        if (available < quantity) {
+            return Draw.INSUFFICIENT;
+        }
+        List<Object[]> draws = new ArrayList<>();
+        int remaining = quantity;
+        for (long[] stripe : locked) {
+            int drawn = (int) Math.min(remaining, stripe[1]);
+            if (drawn > 0) {
+                draws.add(new Object[]{drawn, stripe[0]});
+                remaining -= drawn;
+            }
+        }
+        jdbcTemplate.batchUpdate("update product_stock_shards set quantity = quantity - ? where id = ?", draws);
+        return Draw.TAKEN;
+    }
+
+    /** Returns units to a random stripe; false if the product is not striped. */
+    public boolean give(long productId, int quantity) {
+        int stripes = stripeCount(productId);
+        if (stripes == 0) {
+            return false;
+        }
+        int shard = ThreadLocalRandom.current().nextInt(stripes);
+        if (jdbcTemplate.update(GIVE_TO_STRIPE_SQL, quantity, productId, shard) == 1) {
+            return true;
+        }
+        stripeCounts.remove(productId);
+        return false;
+    }
+
+    /** Copies each striped product's stripe total into {@code Product.quantity} so catalog reads stay close. */
+    @Scheduled(fixedDelayString = "${inventory.striping.reconcile-interval:PT5S}")
+    public int reconcile() {
+        return jdbcTemplate.update(RECONCILE_SQL);
+    }
+
+    // Locks the product row and any stripes, moves their total into Product.quantity and deletes the stripes
+    private int merge(long productId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "select quantity from product where productid = ? for update", Integer.class, productId);
+        if (rows.isEmpty()) {
+            throw new NoSuchElementException("Product not found with id: " + productId);
+        }
+        List<ProductStockShard> stripes = shardRepository.findByProductIdOrderByShardNoAsc(productId);
+        if (stripes.isEmpty()) {
+            return rows.getFirst();
+        }
+        int quantity = stripes.stream().mapToInt(ProductStockShard::getQuantity).sum();
+        jdbcTemplate.update("update product set quantity = ? where productid = ?", quantity, productId);
+        shardRepository.deleteAllInBatch(stripes);
+        return quantity;
+    }
+
+    private int stripeCount(long productId) {
+        Integer cached = stripeCounts.get(productId);
+        if (cached != null) {
+            return cached;
+        }
+        Integer counted = jdbcTemplate.queryForObject(
+                "select count(*) from product_stock_shards where product_id = ?", Integer.class, productId);
+        if (counted != null && counted > 0) {
+            stripeCounts.put(productId, counted);
+            return counted;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.ecommerce_app.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Local stand-in for a real gateway: waits {@code payments.gateway.stub.latency} and approves every
+ * positive amount. Active unless another gateway is selected with {@code payments.gateway}.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.gateway", havingValue = "stub", matchIfMissing = true)
+public class StubPaymentGateway implements PaymentGateway {
+
+    private final Duration latency;
+
+    public StubPaymentGateway(@Value("${payments.gateway.stub.latency:PT1S}") Duration latency) {
+        this.latency = latency;
+    }
+
+    @Override
+    public Result charge(Charge charge) throws InterruptedException {
+        Thread.sleep(latency);
+        return charge.amount() > 0 ? Result.completed() : Result.failed("Amount must be positive");
+    }
+}
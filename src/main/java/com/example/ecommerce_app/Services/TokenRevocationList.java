@@ -0,0 +1,177 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.RevokedToken;
+import com.example.ecommerce_app.Repositories.RevokedTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked token ids ({@code jti}) and session ids ({@code sid}), checked on every authenticated request.
+ * A Bloom filter answers the common case, a token that was never revoked, with a few bit reads; only its
+ * rare positives go on to the exact set. Both live in memory and are rebuilt from the
+ * {@code revoked_tokens} table on startup and by {@link #compact()}, which also drops entries whose
+ * tokens have expired anyway and picks up revocations made by other nodes.
+ */
+@Service
+public class TokenRevocationList {
+
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final RevokedTokenRepository repository;
+    private final Clock clock;
+    private final int expectedRevocations;
+    private final double falsePositiveRate;
+    private final Object lock = new Object();
+    private volatile Snapshot snapshot;
+
+    private record Snapshot(Map<String, Instant> revoked, BloomFilter filter) {}
+
+    @Autowired
+    public TokenRevocationList(RevokedTokenRepository repository,
+                               @Value("${security.jwt.revocation.expected-revocations:100000}") int expectedRevocations,
+                               @Value("${security.jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        this(repository, expectedRevocations, falsePositiveRate, Clock.systemUTC());
+    }
+
+    TokenRevocationList(RevokedTokenRepository repository, int expectedRevocations, double falsePositiveRate, Clock clock) {
+        this.repository = repository;
+        this.clock = clock;
+        this.expectedRevocations = expectedRevocations;
+        this.falsePositiveRate = falsePositiveRate;
+        this.snapshot = new Snapshot(new ConcurrentHashMap<>(), new BloomFilter(expectedRevocations, falsePositiveRate));
+    }
+
+    public boolean isRevoked(String id) {
+        if (id == null) {
+            return false;
+        }
+        Snapshot current = snapshot;
+        return current.filter().mightContain(id) && current.revoked().containsKey(id);
+    }
+
+    /**
+     * Revokes {@code id} until {@code expiresAt}. Returns false if it was already revoked, here or by
+     * another node, which is how a refresh token presented a second time is detected.
+     */
+    public boolean revoke(String id, Instant expiresAt) {
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current.revoked().putIfAbsent(id, expiresAt) != null) {
+                return false;
+            }
+            current.filter().add(id);
+        }
+        try {
+            repository.saveAndFlush(new RevokedToken(id, expiresAt));
+            return true;
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        compact();
+    }
+
+    /**
+     * Deletes expired revocations and rebuilds the filter and exact set from what is left, sizing the
+     * filter for the current count so its false-positive rate stays where it was configured.
+     */
+    @Scheduled(fixedDelayString = "${security.jwt.revocation.compaction-interval:PT5M}")
+    public int compact() {
+        Instant now = clock.instant();
+        int deleted = repository.deleteExpired(now);
+        Map<String, Instant> live = new HashMap<>();
+        for (RevokedToken token : repository.findByExpiresAtAfter(now)) {
+            live.put(token.getTokenId(), token.getExpiresAt());
+        }
+        synchronized (lock) {
+            // Keep revocations made on this node while the table was being read
+            snapshot.revoked().forEach((id, expiresAt) -> {
+                if (expiresAt.isAfter(now)) {
+                    live.putIfAbsent(id, expiresAt);
+                }
+            });
+            BloomFilter filter = new BloomFilter(Math.max(expectedRevocations, live.size() * 2), falsePositiveRate);
+            live.keySet().forEach(filter::add);
+            snapshot = new Snapshot(new ConcurrentHashMap<>(live), filter);
+        }
+        if (deleted > 0) {
+            log.info("Compacted token revocation list: {} expired, {} live", deleted, live.size());
+        }
+        return live.size();
+    }
+
+    /** Fixed-size Bloom filter over strings; bits are only ever set, so concurrent readers need no lock. */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            int n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+            this.bits = new AtomicLongArray((int) (bitCount / 64));
+        }
+
+        void add(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                while (((current = bits.get(word)) & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+                    // Another bit in the same word changed underneath us; retry
+                }
+            }
+        }
+
+        boolean mightContain(String value) {
+            long h1 = hash(value);
+            long h2 = mix(h1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the UTF-16 code units
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+
+        private static long mix(long z) {
+            z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+            z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+            return z ^ (z >>> 31);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Config.CacheConfig;
 import com.example.ecommerce_app.Model.LocalUser;
 import com.example.ecommerce_app.Repositories.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -14,13 +17,18 @@ import java.util.Optional;
 
 @Service
 public class UserService {
+
+    public static final String REGISTERED = "User registered successfully.";
+
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
 
     @Autowired
-    public UserService(UserRepository userRepository, BCryptPasswordEncoder passwordEncoder) {
+    public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder, CacheManager cacheManager) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
     }
 
 
@@ -40,14 +48,16 @@ public class UserService {
         user.setPassword(passwordEncoder.encode(user.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
         userRepository.save(user);
-        return "User registered successfully.";
+        return REGISTERED;
     }
 
     public String deleteUser(Long userId) {
-        if (!userRepository.existsById(userId)) {
+        Optional<LocalUser> optionalUser = userRepository.findById(userId);
+        if (optionalUser.isEmpty()) {
             return "User not found.";
         }
         userRepository.deleteById(userId);
+        evictCachedUser(optionalUser.get().getUsername());
         return "User deleted successfully.";
     }
 
@@ -61,7 +71,10 @@ public class UserService {
         return userRepository.findByEmail(email);
     }
 
-    // Get user by username
+    // Get user by username. Cached briefly: every authenticated request resolves its caller through here.
+    // A user read inside a transaction may yet be rolled back, so only reads outside one are cached
+    @Cacheable(cacheNames = CacheConfig.USERS_BY_USERNAME, key = "#username",
+            unless = "#result == null || T(org.springframework.transaction.support.TransactionSynchronizationManager).isActualTransactionActive()")
     public Optional<LocalUser> getUserByUsername(String username) {
         return userRepository.findByUsername(username);
     }
@@ -73,6 +86,7 @@ public class UserService {
         if (optionalUser.isPresent()) {
             LocalUser user = optionalUser.get();
             if (passwordEncoder.matches(password, user.getPassword())) {
+                rehashIfOutdated(user, password);
                 return user;  // Return the actual user on successful login
             }
         }
@@ -87,6 +101,7 @@ public class UserService {
         if (optionalUser.isPresent()) {
             LocalUser user = optionalUser.get();
             if (passwordEncoder.matches(password, user.getPassword())) {
+                rehashIfOutdated(user, password);
                 return user;  // Return the actual user on successful login
             }
         }
@@ -113,6 +128,7 @@ public class UserService {
 
         user.setPassword(passwordEncoder.encode(newPassword));
         userRepository.save(user);
+        evictCachedUser(user.getUsername());
         return "Password reset successfully";
     }
 
@@ -134,6 +150,23 @@ public class UserService {
         user.setPhoneNumber(updatedInfo.getPhoneNumber());
 
         userRepository.save(user);
+        evictCachedUser(user.getUsername());
         return "User details updated successfully.";
     }
+
+    // The raw password is only at hand during a successful login, so that is when hashes of an old cost or format are replaced
+    private void rehashIfOutdated(LocalUser user, String rawPassword) {
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(rawPassword));
+            userRepository.save(user);
+            evictCachedUser(user.getUsername());
+        }
+    }
+
+    private void evictCachedUser(String username) {
+        Cache cache = cacheManager.getCache(CacheConfig.USERS_BY_USERNAME);
+        if (cache != null && username != null) {
+            cache.evict(username);
+        }
+    }
 }
@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.exception;
+
+public class InsufficientStockException extends RuntimeException {
+
+    private final long productId;
+
+    public InsufficientStockException(long productId) {
+        super("Insufficient stock for product with id " + productId);
+        this.productId = productId;
+    }
+
+    public long getProductId() {
+        return productId;
+    }
+}
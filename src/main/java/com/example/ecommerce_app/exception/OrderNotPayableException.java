@@ -0,0 +1,15 @@
+package com.example.ecommerce_app.exception;
+
+public class OrderNotPayableException extends RuntimeException {
+
+    private final long orderId;
+
+    public OrderNotPayableException(long orderId, String status) {
+        super("Order with id " + orderId + " cannot be paid: it is " + status + " or no longer holds reserved stock");
+        this.orderId = orderId;
+    }
+
+    public long getOrderId() {
+        return orderId;
+    }
+}
@@ -16,7 +16,9 @@ import org.junit.platform.suite.api.Suite;
         ProductControllerMVCTest.class,
         ProductControllerUnitTest.class,
         UserControllerTest.class,
-        PaymentControllerTest.class
+        PaymentControllerTest.class,
+        AdminExportControllerMVCTest.class,
+        AdminProductImportControllerMVCTest.class
 })
 public class ControllerTestSuite {
     // This class serves as a holder for the test suite configuration
@@ -0,0 +1,130 @@
+package com.example.ecommerce_app.ControllerUnitTest;
+
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminExportControllerMVCTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private String userToken;
+    private String adminToken;
+
+    @BeforeEach
+    void setup() throws Exception {
+        LocalUser user = new LocalUser();
+        user.setEmail("testuser@mail.com");
+        user.setUsername("testuser");
+        user.setPassword("12345678");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setAddress("Address");
+        user.setPhoneNumber("0123456789");
+        user.setRole("ROLE_USER");
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(user)));
+        userToken = login("testuser", "12345678");
+
+        if (userRepository.findByUsername("exportadmin").isEmpty()) {
+            userRepository.save(new LocalUser("exportadmin", passwordEncoder.encode("adminpass"), "exportadmin@mail.com",
+                    "Export", "Admin", "Address", LocalDateTime.now(), "ROLE_ADMIN", "0123456788"));
+        }
+        adminToken = login("exportadmin", "adminpass");
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/users/login/username")
+                        .param("username", username)
+                        .param("password", password))
+                .andExpect(status().isOk()).andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    @Test
+    @DisplayName("Test1: Exports are refused to users without the admin role")
+    void export_forbiddenForUsers() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/export/orders")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Test2: Orders export as one JSON object per line")
+    void exportOrders_ndjson() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/export/orders")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"orders.ndjson\""))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertTrue(lines.length > 0);
+        for (String line : lines) {
+            JsonNode order = mapper.readTree(line);
+            assertTrue(order.has("orderId"));
+            assertTrue(order.has("totalPrice"));
+        }
+    }
+
+    @Test
+    @DisplayName("Test3: Carts export as CSV with a header row")
+    void exportCarts_csv() throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/export/carts")
+                        .param("format", "csv")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals("cartId,userId,cartVersion,cartUpdatedAt,itemId,productId,quantity,itemUpdatedAt", lines[0]);
+        assertTrue(lines.length > 1);
+        assertEquals(8, lines[1].split(",", -1).length);
+    }
+
+    @Test
+    @DisplayName("Test4: Unknown exports and formats are rejected")
+    void export_badRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/export/users")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/admin/export/payments")
+                        .param("format", "xml")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+}
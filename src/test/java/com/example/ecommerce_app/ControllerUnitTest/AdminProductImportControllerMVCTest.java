@@ -0,0 +1,205 @@
+package com.example.ecommerce_app.ControllerUnitTest;
+
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Model.Product;
+import com.example.ecommerce_app.Repositories.ProductRepository;
+import com.example.ecommerce_app.Repositories.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class AdminProductImportControllerMVCTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private String userToken;
+    private String adminToken;
+    // Every test imports names of its own, deleted again afterwards so other tests see only the seeded catalog
+    private String prefix;
+
+    @BeforeEach
+    void setup() throws Exception {
+        LocalUser user = new LocalUser();
+        user.setEmail("testuser@mail.com");
+        user.setUsername("testuser");
+        user.setPassword("12345678");
+        user.setFirstName("Test");
+        user.setLastName("User");
+        user.setAddress("Address");
+        user.setPhoneNumber("0123456789");
+        user.setRole("ROLE_USER");
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/users/register")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(mapper.writeValueAsString(user)));
+        userToken = login("testuser", "12345678");
+
+        if (userRepository.findByUsername("importadmin").isEmpty()) {
+            userRepository.save(new LocalUser("importadmin", passwordEncoder.encode("adminpass"), "importadmin@mail.com",
+                    "Import", "Admin", "Address", LocalDateTime.now(), "ROLE_ADMIN", "0123456787"));
+        }
+        adminToken = login("importadmin", "adminpass");
+        prefix = "Imported" + System.nanoTime();
+    }
+
+    @AfterEach
+    void cleanup() throws Exception {
+        // Through the API, so the catalog caches and indexes forget them too
+        for (Product product : productRepository.findByNameContainingIgnoreCase(prefix)) {
+            mockMvc.perform(MockMvcRequestBuilders.delete("/api/products/" + product.getProductID())
+                    .header("Authorization", "Bearer " + adminToken));
+        }
+    }
+
+    private String login(String username, String password) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/users/login/username")
+                        .param("username", username)
+                        .param("password", password))
+                .andExpect(status().isOk()).andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString()).get("token").asText();
+    }
+
+    private JsonNode importProducts(String format, String body) throws Exception {
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/products/import")
+                        .param("format", format)
+                        .contentType(format.equals("csv") ? "text/csv" : "application/x-ndjson")
+                        .content(body)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk())
+                .andReturn();
+        return mapper.readTree(result.getResponse().getContentAsString());
+    }
+
+    private String ndjson(String name, double price, Integer quantity, String imageSuffix) {
+        return "{\"name\":\"" + name + "\",\"price\":" + price + (quantity == null ? "" : ",\"quantity\":" + quantity) +
+                ",\"description\":\"Imported product\",\"imageURL\":\"https://img.example.com/" + imageSuffix +
+                "\",\"category\":\"Imports\"}\n";
+    }
+
+    @Test
+    @DisplayName("Test1: Imports are refused to users without the admin role")
+    void import_forbiddenForUsers() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/products/import")
+                        .content(ndjson(prefix + " Lamp", 10, 1, prefix + "-lamp"))
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("Test2: NDJSON rows create new products and update existing ones matched by name")
+    void importNdjson_createsThenUpdates() throws Exception {
+        JsonNode first = importProducts("ndjson",
+                ndjson(prefix + " Lamp", 25.5, 4, prefix + "-lamp") + "\n" + ndjson(prefix + " Desk", 150, null, prefix + "-desk"));
+
+        assertEquals(2, first.get("rowsRead").asLong());
+        assertEquals(2, first.get("created").asInt());
+        assertEquals(0, first.get("updated").asInt());
+        assertEquals(0, first.get("rejected").asLong());
+        assertEquals(0, productRepository.findByNameIgnoreCase(prefix + " Desk").orElseThrow().getQuantity());
+
+        JsonNode second = importProducts("ndjson", ndjson(prefix.toUpperCase() + " LAMP", 19.99, null, prefix + "-lamp-v2"));
+
+        assertEquals(0, second.get("created").asInt());
+        assertEquals(1, second.get("updated").asInt());
+        Product lamp = productRepository.findByNameIgnoreCase(prefix + " Lamp").orElseThrow();
+        assertEquals(prefix.toUpperCase() + " LAMP", lamp.getName());
+        assertEquals(19.99, lamp.getPrice());
+        assertEquals(4, lamp.getQuantity());
+        assertEquals("https://img.example.com/" + prefix + "-lamp-v2", lamp.getImageURL());
+
+        // The search index is rebuilt once the import commits
+        MvcResult search = mockMvc.perform(MockMvcRequestBuilders.get("/api/products/search/ranked")
+                        .param("q", prefix)
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isOk()).andReturn();
+        assertEquals(2, mapper.readTree(search.getResponse().getContentAsString()).size());
+    }
+
+    @Test
+    @DisplayName("Test3: CSV columns may come in any order and quoted fields may hold commas, quotes and line breaks")
+    void importCsv_quotedFields() throws Exception {
+        String csv = "Category,Name,Price,imageURL,Description\r\n" +
+                "Imports," + prefix + " Chair,49.90,https://img.example.com/" + prefix + "-chair,\"Oak, with a \"\"soft\"\" seat\nand arms\"\r\n";
+
+        JsonNode report = importProducts("csv", csv);
+
+        assertEquals(1, report.get("created").asInt());
+        Product chair = productRepository.findByNameIgnoreCase(prefix + " Chair").orElseThrow();
+        assertEquals("Oak, with a \"soft\" seat\nand arms", chair.getDescription());
+        assertEquals(49.90, chair.getPrice());
+        assertEquals("Imports", chair.getCategory());
+    }
+
+    @Test
+    @DisplayName("Test4: Invalid, duplicate and conflicting rows are reported while the rest are imported")
+    void import_reportsRejectedRows() throws Exception {
+        String laptopImage = productRepository.findByNameIgnoreCase("Laptop").orElseThrow().getImageURL();
+        String body = ndjson(prefix + " Vase", 12, 3, prefix + "-vase") +
+                ndjson(prefix + " vase", 14, 3, prefix + "-vase-2") +
+                ndjson(prefix + " Rug", -1, 3, prefix + "-rug") +
+                "{not json\n" +
+                "{\"name\":\"" + prefix + " Mug\",\"price\":5,\"description\":\"Mug\",\"imageURL\":\"" + laptopImage + "\",\"category\":\"Imports\"}\n" +
+                ndjson(prefix + " Clock", 30, 2, prefix + "-clock");
+
+        JsonNode report = importProducts("ndjson", body);
+
+        assertEquals(6, report.get("rowsRead").asLong());
+        assertEquals(2, report.get("created").asInt());
+        assertEquals(4, report.get("rejected").asLong());
+        JsonNode errors = report.get("errors");
+        assertEquals(4, errors.size());
+        assertEquals("Duplicate of row 1", errors.get(0).get("message").asText());
+        assertEquals(2, errors.get(0).get("row").asLong());
+        assertEquals(3, errors.get(1).get("row").asLong());
+        assertEquals(4, errors.get(2).get("row").asLong());
+        assertEquals(5, errors.get(3).get("row").asLong());
+        assertTrue(productRepository.findByNameIgnoreCase(prefix + " Clock").isPresent());
+        assertTrue(productRepository.findByNameIgnoreCase(prefix + " Mug").isEmpty());
+        assertEquals(12, productRepository.findByNameIgnoreCase(prefix + " Vase").orElseThrow().getPrice());
+    }
+
+    @Test
+    @DisplayName("Test5: Unknown formats and CSV without the required columns are rejected")
+    void import_badRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/products/import")
+                        .param("format", "xml")
+                        .content("<products/>")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/admin/products/import")
+                        .param("format", "csv")
+                        .content("name,price\nLamp,10\n")
+                        .header("Authorization", "Bearer " + adminToken))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -327,4 +327,78 @@ public class OrderControllerMVCTest {
         // Clean up the created order
         orderRepository.deleteById(createdOrder.getOrderID());
     }
+
+    @Test
+    @DisplayName("Test13: Order history lists the user's orders with their items and without the user")
+    @Transactional
+    void getOrderHistory_success() throws Exception {
+        testOrder.setOrderDate(LocalDateTime.now().plusYears(1));
+        orderRepository.save(testOrder);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/history")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].orderID", is((int) testOrder.getOrderID())))
+                .andExpect(jsonPath("$.items[0].items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].items[0].productName", is("Test Product")))
+                .andExpect(jsonPath("$.items[0].user").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Test14: Order history pages newest first through the cursor")
+    @Transactional
+    void getOrderHistory_keysetPages() throws Exception {
+        LocalDateTime future = LocalDateTime.now().plusYears(1);
+        List<Long> ids = new ArrayList<>();
+        for (int days = 3; days >= 1; days--) {
+            UserOrder order = new UserOrder();
+            order.setUser(testUser);
+            order.setStatus("pending");
+            order.setOrderDate(future.plusDays(days));
+            order.setItems(new ArrayList<>());
+            ids.add(orderRepository.save(order).getOrderID());
+        }
+
+        MvcResult first = mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/history")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[*].orderID", contains(ids.get(0).intValue(), ids.get(1).intValue())))
+                .andExpect(jsonPath("$.hasMore", is(true)))
+                .andReturn();
+
+        var page = mapper.readTree(first.getResponse().getContentAsString());
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/history")
+                        .param("size", "2")
+                        .param("before", page.get("nextBefore").asText())
+                        .param("beforeId", page.get("nextBeforeId").asText())
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].orderID", is(ids.get(2).intValue())));
+    }
+
+    @Test
+    @DisplayName("Test15: Order history rejects a half-given cursor")
+    void getOrderHistory_incompleteCursor() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/orders/history")
+                        .param("beforeId", "5")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Test16: Placing an order turns the cart into order items and empties the cart")
+    @Transactional
+    void placeOrder_fromCart() throws Exception {
+        cartService.addItemToCart(testUser, 10L, 2);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/api/orders")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(1)))
+                .andExpect(jsonPath("$.items[0].productName", is("Wireless Mouse")))
+                .andExpect(jsonPath("$.totalPrice", closeTo(99.98, 0.001)));
+
+        assertTrue(cartService.getCartByUser(testUser).getItems().isEmpty());
+    }
 }
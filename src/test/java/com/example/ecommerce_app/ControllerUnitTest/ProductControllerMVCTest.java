@@ -247,4 +247,110 @@ public class ProductControllerMVCTest {
                 .andExpect(jsonPath("$", hasSize(10)));
     }
 
+    @Test
+    @DisplayName("Test20: Get first product page")
+    void getProductPage_firstPage() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/page").header("Authorization", "Bearer " + token)
+                        .param("size", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(4)))
+                .andExpect(jsonPath("$.items[0].description").doesNotExist())
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextCursor").isNumber());
+    }
+
+    @Test
+    @DisplayName("Test21: Get product page past the last id")
+    void getProductPage_exhausted() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/page").header("Authorization", "Bearer " + token)
+                        .param("after", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items", hasSize(0)))
+                .andExpect(jsonPath("$.hasMore").value(false));
+    }
+
+    @Test
+    @DisplayName("Test22: Ranked search puts name matches first")
+    void searchRanked() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/search/ranked").header("Authorization", "Bearer " + token)
+                        .param("q", "lap"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Laptop"))
+                .andExpect(jsonPath("$[1].name").value("Backpack"));
+    }
+
+    @Test
+    @DisplayName("Test23: Autocomplete suggests product names for a prefix")
+    void autocomplete() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/autocomplete").header("Authorization", "Bearer " + token)
+                        .param("prefix", "sm"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]").value("Smart Watch"))
+                .andExpect(jsonPath("$[1]").value("Smartphone"));
+    }
+
+    @Test
+    @DisplayName("Test24: Paged price range filtered by category")
+    void priceRangePage() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/price-range").header("Authorization", "Bearer " + token)
+                        .param("min", "30")
+                        .param("max", "300")
+                        .param("category", "Electronics")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(3))
+                .andExpect(jsonPath("$.items", hasSize(2)))
+                .andExpect(jsonPath("$.items[0].name").value("Wireless Mouse"))
+                .andExpect(jsonPath("$.items[1].name").value("Headphones"));
+    }
+
+    @Test
+    @DisplayName("Test25: Browse with facets filtered by category and price band")
+    void browseWithFacets() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/browse").header("Authorization", "Bearer " + token)
+                        .param("category", "Electronics")
+                        .param("band", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results.total").value(2))
+                .andExpect(jsonPath("$.results.items", hasSize(2)))
+                .andExpect(jsonPath("$.categories.Electronics").value(2))
+                .andExpect(jsonPath("$.categories.Furniture").value(1))
+                .andExpect(jsonPath("$.priceBands", hasSize(6)))
+                .andExpect(jsonPath("$.priceBands[0].count").value(1))
+                .andExpect(jsonPath("$.priceBands[4].count").value(2));
+    }
+
+    @Test
+    @DisplayName("Test26: Browse with an unknown price band fails")
+    void browseWithInvalidBand() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/api/products/browse").header("Authorization", "Bearer " + token)
+                        .param("band", "9"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Test27: Stock striping can be switched on and off for a product")
+    void toggleStockStripes() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/products/8/stock-stripes").header("Authorization", "Bearer " + token)
+                        .param("count", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stripes").value(4))
+                .andExpect(jsonPath("$.quantity").value(6));
+
+        mockMvc.perform(MockMvcRequestBuilders.delete("/api/products/8/stock-stripes").header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stripes").value(0))
+                .andExpect(jsonPath("$.quantity").value(6));
+    }
+
+    @Test
+    @DisplayName("Test28: Stock striping rejects an out-of-range stripe count")
+    void stockStripesWithInvalidCount() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.put("/api/products/8/stock-stripes").header("Authorization", "Bearer " + token)
+                        .param("count", "1"))
+                .andExpect(status().isBadRequest());
+    }
+
 }
@@ -58,7 +58,7 @@ public class ProductControllerUnitTest {
     @Test
     @DisplayName("2: Test get product by ID success")
     void getProductById_success() {
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
+        when(productService.getProductById(1L)).thenReturn(product);
 
         Product result = productController.getProductById(1L);
 
@@ -69,7 +69,7 @@ public class ProductControllerUnitTest {
     @Test
     @DisplayName("3: Test get product by ID not found")
     void getProductById_notFound() {
-        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+        when(productService.getProductById(2L)).thenThrow(new RuntimeException("Product not found with id: 2"));
 
         Exception exception = assertThrows(RuntimeException.class, () -> {
             productController.getProductById(2L);
@@ -133,7 +133,7 @@ public class ProductControllerUnitTest {
     @Test
     @DisplayName("10: Test get products in price range (GET /{min}/{max})")
     void getProductsInRange() {
-        when(productRepository.findByPriceBetween(10.0, 50.0)).thenReturn(List.of(product));
+        when(productService.getProductsInRange(10.0, 50.0)).thenReturn(List.of(product));
         List<Product> result = productController.getProductsInRange(10.0, 50.0);
         assertEquals(1, result.size());
     }
@@ -16,6 +16,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.jwt.BadJwtException;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -55,7 +56,7 @@ public class UserControllerTest {
         user.setLastName("sais");
         user.setAddress("Cairo");
         user.setPhoneNumber("01234567899");
-        authResponse = new AuthResponse("JWT_TOKEN", null, System.currentTimeMillis() + 60000);
+        authResponse = new AuthResponse("JWT_TOKEN", null, System.currentTimeMillis() + 60000, "REFRESH_TOKEN");
 
     }
 
@@ -64,12 +65,14 @@ public class UserControllerTest {
     void registerUser_success() {
         when(userService.getUserByEmail(user.getEmail())).thenReturn(Optional.empty());
         when(userService.getUserByUsername(user.getUsername())).thenReturn(Optional.empty());
-        when(authService.authenticate(any(AuthRequest.class))).thenReturn(authResponse);
+        when(userService.registerUser(user)).thenReturn(UserService.REGISTERED);
+        when(authService.issueToken(user)).thenReturn(authResponse);
 
 
         ResponseEntity<?> response = userController.register(user);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(authResponse, response.getBody());
+        verify(authService, never()).authenticate(any(AuthRequest.class));
     }
 
     @Test
@@ -149,7 +152,7 @@ public class UserControllerTest {
     @DisplayName("10: Test login with email success")
     void loginWithEmail_success() {
         when(userService.loginWithEmail(user.getEmail(), user.getPassword())).thenReturn(user);
-        when(authService.authenticate(any(AuthRequest.class))).thenReturn(authResponse);
+        when(authService.issueToken(user)).thenReturn(authResponse);
         ResponseEntity<?> response = userController.loginWithEmail(user.getEmail(), user.getPassword());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(authResponse, response.getBody());
@@ -168,7 +171,7 @@ public class UserControllerTest {
     @DisplayName("12: Test login with username success")
     void loginWithUsername_success() {
         when(userService.loginWithUsername(user.getUsername(), user.getPassword())).thenReturn(user);
-        when(authService.authenticate(any(AuthRequest.class))).thenReturn(authResponse);
+        when(authService.issueToken(user)).thenReturn(authResponse);
         ResponseEntity<?> response = userController.loginWithUsername(user.getUsername(), user.getPassword());
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(authResponse, response.getBody());
@@ -232,4 +235,36 @@ public class UserControllerTest {
         String result = userController.deleteUser(1L);
         assertEquals("User deleted successfully.", result);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("19: Test registration rejected by the service issues no token")
+    void registerUser_rejectedByService() {
+        when(userService.getUserByEmail(user.getEmail())).thenReturn(Optional.empty());
+        when(userService.getUserByUsername(user.getUsername())).thenReturn(Optional.empty());
+        when(userService.registerUser(user)).thenReturn("Password is required.");
+
+        ResponseEntity<?> response = userController.register(user);
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertEquals("Password is required.", response.getBody());
+        verifyNoInteractions(authService);
+    }
+
+    @Test
+    @DisplayName("20: Test refresh token exchanged for a new token pair")
+    void refreshToken_success() {
+        when(authService.refresh("REFRESH_TOKEN")).thenReturn(authResponse);
+
+        ResponseEntity<?> response = userController.refreshToken("REFRESH_TOKEN");
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(authResponse, response.getBody());
+    }
+
+    @Test
+    @DisplayName("21: Test rejected refresh token returns unauthorized")
+    void refreshToken_rejected() {
+        when(authService.refresh("REFRESH_TOKEN")).thenThrow(new BadJwtException("Refresh token has already been used"));
+
+        ResponseEntity<?> response = userController.refreshToken("REFRESH_TOKEN");
+        assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    }
+}
@@ -13,10 +13,28 @@ import org.junit.platform.suite.api.Suite;
 @SelectClasses({
         AuthServiceTest.class,
         CartServiceTest.class,
+        CartServiceConcurrencyTest.class,
         OrderServiceTest.class,
         ProductServiceTest.class,
         UserServiceTest.class,
-        PaymentServiceTest.class
+        PaymentServiceTest.class,
+        ProductSearchIndexTest.class,
+        ProductNameTrieTest.class,
+        ProductPriceIndexTest.class,
+        ProductFacetIndexTest.class,
+        InventoryServiceLoadTest.class,
+        StripedStockServiceTest.class,
+        PaymentExecutionEngineTest.class,
+        PaymentNotificationPipelineTest.class,
+        PendingPaymentRecoveryTest.class,
+        CachingJwtDecoderTest.class,
+        BoundedPasswordEncoderTest.class,
+        CalibratedBCryptPasswordEncoderTest.class,
+        TokenRevocationListTest.class,
+        LoginRateLimiterTest.class,
+        CartPricingEngineTest.class,
+        CartWriteBehindBufferTest.class,
+        AbandonedCartSweeperTest.class
 })
 public class ServiceTestSuite {
     // This class serves as a holder for the test suite configuration
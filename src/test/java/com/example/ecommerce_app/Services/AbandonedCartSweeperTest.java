@@ -0,0 +1,91 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Repositories.ArchivedCartItemRepository;
+import com.example.ecommerce_app.Repositories.CartItemRepository;
+import com.example.ecommerce_app.Repositories.CartRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AbandonedCartSweeperTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T12:00:00Z");
+    private static final LocalDateTime CUTOFF = LocalDateTime.parse("2025-01-01T12:00:00");
+
+    private final CartRepository cartRepository = mock(CartRepository.class);
+    private final CartItemRepository cartItemRepository = mock(CartItemRepository.class);
+    private final ArchivedCartItemRepository archiveRepository = mock(ArchivedCartItemRepository.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private AbandonedCartSweeper sweeper(int maxChunksPerRun) {
+        return new AbandonedCartSweeper(cartRepository, cartItemRepository, archiveRepository, transactionTemplate,
+                meterRegistry, Duration.ofDays(30), 2, maxChunksPerRun, Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @BeforeEach
+    void setUp() {
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    @DisplayName("Stale carts are archived and deleted chunk by chunk until a chunk comes back short")
+    void sweepsInChunks() {
+        when(cartRepository.findIdsByUpdatedAtBefore(eq(CUTOFF), any(Limit.class)))
+                .thenReturn(List.of(1L, 2L), List.of(3L));
+        when(archiveRepository.archiveItemsOfStaleCarts(anyList(), eq(CUTOFF), any())).thenReturn(3, 1);
+        when(cartRepository.deleteStaleByIds(anyList(), eq(CUTOFF))).thenReturn(2, 1);
+
+        assertEquals(3, sweeper(10).sweep());
+
+        verify(cartItemRepository).deleteByStaleCartIds(List.of(1L, 2L), CUTOFF);
+        verify(cartItemRepository).deleteByStaleCartIds(List.of(3L), CUTOFF);
+        verify(transactionTemplate, times(2)).execute(any());
+        assertEquals(3, meterRegistry.counter("cart.sweeper.carts.deleted").count());
+        assertEquals(4, meterRegistry.counter("cart.sweeper.items.archived").count());
+        assertEquals(0, meterRegistry.get("cart.sweeper.backlog").gauge().value());
+        verify(cartRepository, never()).countByUpdatedAtBefore(any());
+    }
+
+    @Test
+    @DisplayName("A run stops after its chunk budget and reports what is left")
+    void stopsAtChunkBudget() {
+        when(cartRepository.findIdsByUpdatedAtBefore(eq(CUTOFF), any(Limit.class))).thenReturn(List.of(1L, 2L));
+        when(cartRepository.deleteStaleByIds(anyList(), eq(CUTOFF))).thenReturn(2);
+        when(cartRepository.countByUpdatedAtBefore(CUTOFF)).thenReturn(40L);
+
+        assertEquals(6, sweeper(3).sweep());
+
+        verify(transactionTemplate, times(3)).execute(any());
+        assertEquals(40, meterRegistry.get("cart.sweeper.backlog").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Nothing is deleted when no cart is stale")
+    void nothingStale() {
+        when(cartRepository.findIdsByUpdatedAtBefore(eq(CUTOFF), any(Limit.class))).thenReturn(List.of());
+
+        assertEquals(0, sweeper(10).sweep());
+
+        verifyNoInteractions(archiveRepository, cartItemRepository);
+        verify(cartRepository, never()).deleteStaleByIds(anyList(), any());
+    }
+}
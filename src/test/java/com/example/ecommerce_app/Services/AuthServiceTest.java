@@ -17,8 +17,13 @@ import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -35,6 +40,12 @@ public class AuthServiceTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private JwtDecoder refreshTokenDecoder;
+
+    @Mock
+    private TokenRevocationList revocations;
+
     @InjectMocks
     private AuthService authService;
 
@@ -76,7 +87,7 @@ public class AuthServiceTest {
     @AfterEach
     void tearDown() {
         // Reset all mocks to ensure a clean state for each test
-        reset(authenticationManager, jwtTokenService, userService);
+        reset(authenticationManager, jwtTokenService, userService, refreshTokenDecoder, revocations);
     }
 
 
@@ -86,7 +97,9 @@ public class AuthServiceTest {
         // Arrange
         when(authentication.getPrincipal()).thenReturn(authUser);
         when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(authentication);
-        when(jwtTokenService.generateToken(authentication)).thenReturn(jwtToken);
+        when(jwtTokenService.newSessionId()).thenReturn("session-1");
+        when(jwtTokenService.generateToken(authentication, "session-1")).thenReturn(jwtToken);
+        when(jwtTokenService.generateRefreshToken(authentication, "session-1")).thenReturn("refresh.token.value");
         when(jwtTokenService.extractExpirationTime(jwtToken)).thenReturn(expiresAt);
 
         // Act
@@ -102,9 +115,10 @@ public class AuthServiceTest {
         assertEquals(localUser.getLastName(), response.getUser().lastName());
         assertEquals(localUser.getRole(), response.getUser().role());
         assertEquals(expiresAt, response.getExpiresAt());
+        assertEquals("refresh.token.value", response.getRefreshToken());
 
         verify(authenticationManager, times(1)).authenticate(any(UsernamePasswordAuthenticationToken.class));
-        verify(jwtTokenService, times(1)).generateToken(authentication);
+        verify(jwtTokenService, times(1)).generateToken(authentication, "session-1");
         verify(jwtTokenService, times(1)).extractExpirationTime(jwtToken);
     }
 
@@ -136,4 +150,108 @@ public class AuthServiceTest {
         verifyNoInteractions(jwtTokenService);
     }
 
+    @Test
+    @DisplayName( "Test4: Resolve the caller from the token's identity claims without a user lookup" )
+    void testGetUserFromAuthentication_FromClaims() {
+        Jwt jwt = jwt().claim("uid", 1L).claim("role", "USER").build();
+        when(authentication.getPrincipal()).thenReturn(jwt);
+
+        LocalUser user = authService.getUserFromAuthentication(authentication);
+
+        assertEquals(1L, user.getID());
+        assertEquals("testUser", user.getUsername());
+        assertEquals("USER", user.getRole());
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName( "Test5: Resolve the caller of a token without identity claims by username" )
+    void testGetUserFromAuthentication_LegacyToken() {
+        when(authentication.getPrincipal()).thenReturn(jwt().build());
+        when(userService.getUserByUsername("testUser")).thenReturn(Optional.of(localUser));
+
+        LocalUser user = authService.getUserFromAuthentication(authentication);
+
+        assertEquals(localUser.getID(), user.getID());
+        assertEquals(localUser.getRole(), user.getRole());
+    }
+
+    @Test
+    @DisplayName( "Test6: A token without identity claims for an unknown user is rejected" )
+    void testGetUserFromAuthentication_LegacyTokenUnknownUser() {
+        when(authentication.getPrincipal()).thenReturn(jwt().build());
+        when(userService.getUserByUsername("testUser")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> authService.getUserFromAuthentication(authentication));
+    }
+
+    @Test
+    @DisplayName( "Test7: Refreshing rotates the token pair within the same session" )
+    void testRefresh_RotatesTokens() {
+        Jwt refreshJwt = refreshJwt();
+        when(refreshTokenDecoder.decode("refresh.token.value")).thenReturn(refreshJwt);
+        when(revocations.revoke("refresh-1", refreshJwt.getExpiresAt())).thenReturn(true);
+        when(userService.getUserByUsername("testUser")).thenReturn(Optional.of(localUser));
+        when(jwtTokenService.generateToken(any(Authentication.class), eq("session-1"))).thenReturn(jwtToken);
+        when(jwtTokenService.generateRefreshToken(any(Authentication.class), eq("session-1"))).thenReturn("next.refresh.token");
+        when(jwtTokenService.extractExpirationTime(jwtToken)).thenReturn(expiresAt);
+
+        AuthResponse response = authService.refresh("refresh.token.value");
+
+        assertEquals(jwtToken, response.getToken());
+        assertEquals("next.refresh.token", response.getRefreshToken());
+        assertEquals(localUser.getRole(), response.getUser().role());
+        verify(jwtTokenService, never()).newSessionId();
+    }
+
+    @Test
+    @DisplayName( "Test8: Reusing a refresh token revokes its whole session" )
+    void testRefresh_ReuseRevokesSession() {
+        Jwt refreshJwt = refreshJwt();
+        Instant sessionExpiry = Instant.now().plusSeconds(3600);
+        when(refreshTokenDecoder.decode("refresh.token.value")).thenReturn(refreshJwt);
+        when(revocations.revoke("refresh-1", refreshJwt.getExpiresAt())).thenReturn(false);
+        when(jwtTokenService.sessionExpiryBound()).thenReturn(sessionExpiry);
+
+        assertThrows(BadJwtException.class, () -> authService.refresh("refresh.token.value"));
+
+        verify(revocations).revoke("session-1", sessionExpiry);
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    @DisplayName( "Test9: A refresh token of a revoked session is rejected without being consumed" )
+    void testRefresh_RevokedSession() {
+        when(refreshTokenDecoder.decode("refresh.token.value")).thenReturn(refreshJwt());
+        when(revocations.isRevoked("session-1")).thenReturn(true);
+
+        assertThrows(BadJwtException.class, () -> authService.refresh("refresh.token.value"));
+
+        verify(revocations, never()).revoke(anyString(), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName( "Test10: Logging out revokes the session of the access token" )
+    void testLogout_RevokesSession() {
+        Instant sessionExpiry = Instant.now().plusSeconds(3600);
+        when(authentication.getPrincipal()).thenReturn(jwt().jti("access-1").claim("sid", "session-1").build());
+        when(jwtTokenService.sessionExpiryBound()).thenReturn(sessionExpiry);
+
+        authService.logout(authentication);
+
+        verify(revocations).revoke("session-1", sessionExpiry);
+    }
+
+    private static Jwt refreshJwt() {
+        return jwt().jti("refresh-1").claim("sid", "session-1").claim("token_use", "refresh").build();
+    }
+
+    private static Jwt.Builder jwt() {
+        Instant now = Instant.now();
+        return Jwt.withTokenValue("jwt.token.value")
+                .header("alg", "HS256")
+                .subject("testUser")
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(60));
+    }
 }
@@ -0,0 +1,75 @@
+package com.example.ecommerce_app.Services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class CachingJwtDecoderTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final JwtDecoder verifier = mock(JwtDecoder.class);
+    private final CachingJwtDecoder decoder = new CachingJwtDecoder(verifier, 100, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("A token is verified once and then served from the cache")
+    void repeatedTokenIsVerifiedOnce() {
+        Jwt jwt = jwt("token-a", NOW.plus(2, ChronoUnit.HOURS));
+        when(verifier.decode("token-a")).thenReturn(jwt);
+
+        assertSame(jwt, decoder.decode("token-a"));
+        assertSame(jwt, decoder.decode("token-a"));
+        verify(verifier, times(1)).decode("token-a");
+    }
+
+    @Test
+    @DisplayName("Different tokens are cached separately")
+    void tokensDoNotShareEntries() {
+        Jwt first = jwt("token-a", NOW.plus(1, ChronoUnit.HOURS));
+        Jwt second = jwt("token-b", NOW.plus(1, ChronoUnit.HOURS));
+        when(verifier.decode("token-a")).thenReturn(first);
+        when(verifier.decode("token-b")).thenReturn(second);
+
+        assertSame(first, decoder.decode("token-a"));
+        assertSame(second, decoder.decode("token-b"));
+    }
+
+    @Test
+    @DisplayName("Tokens past their exp are never cached")
+    void expiredTokenIsNotCached() {
+        when(verifier.decode("token-a")).thenReturn(jwt("token-a", NOW.minusSeconds(1)));
+
+        decoder.decode("token-a");
+        decoder.decode("token-a");
+        verify(verifier, times(2)).decode("token-a");
+    }
+
+    @Test
+    @DisplayName("A token that fails verification is rejected every time")
+    void rejectedTokenIsNotCached() {
+        when(verifier.decode("forged")).thenThrow(new BadJwtException("bad signature"));
+
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        assertThrows(BadJwtException.class, () -> decoder.decode("forged"));
+        verify(verifier, times(2)).decode("forged");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "HS256")
+                .subject("username")
+                .issuedAt(expiresAt.minus(2, ChronoUnit.HOURS))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
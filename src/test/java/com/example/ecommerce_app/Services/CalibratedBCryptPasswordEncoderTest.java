@@ -0,0 +1,56 @@
+package com.example.ecommerce_app.Services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CalibratedBCryptPasswordEncoderTest {
+
+    @Test
+    @DisplayName("Hashes of a lower cost need upgrading; hashes of the same or a higher cost do not")
+    void upgradeOnlyWhenCostIsLower() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Hashes of a higher cost are rehashed down only when downgrades are allowed")
+    void downgradeWhenAllowed() {
+        CalibratedBCryptPasswordEncoder encoder = new CalibratedBCryptPasswordEncoder(5, true);
+
+        assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(6).encode("secret")));
+    }
+
+    @Test
+    @DisplayName("Calibration stays within the configured bounds")
+    void calibrationIsClamped() {
+        assertEquals(4, CalibratedBCryptPasswordEncoder.calibrate(Duration.ZERO, 4, 6));
+        assertEquals(6, CalibratedBCryptPasswordEncoder.calibrate(Duration.ofHours(1), 4, 6));
+    }
+
+    @Test
+    @DisplayName("Legacy unprefixed hashes still verify and are flagged for rehashing")
+    void legacyHashesVerifyAndUpgrade() {
+        PasswordEncoder encoder = CalibratedBCryptPasswordEncoder.delegating(4);
+        String legacy = new BCryptPasswordEncoder(4).encode("secret");
+
+        assertTrue(encoder.matches("secret", legacy));
+        assertFalse(encoder.matches("wrong", legacy));
+        assertTrue(encoder.upgradeEncoding(legacy));
+
+        String rehashed = encoder.encode("secret");
+        assertTrue(rehashed.startsWith("{bcrypt}$2a$04$"));
+        assertTrue(encoder.matches("secret", rehashed));
+        assertFalse(encoder.upgradeEncoding(rehashed));
+    }
+}
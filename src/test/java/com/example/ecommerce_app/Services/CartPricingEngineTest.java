@@ -0,0 +1,81 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.PricedCart;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.CartItem;
+import com.example.ecommerce_app.Model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CartPricingEngineTest {
+
+    @Test
+    @DisplayName("Totals are exact in cents where double arithmetic drifts")
+    void totalsInCents() {
+        CartPricingEngine engine = new CartPricingEngine(0, 0, 0, 100, Duration.ofMinutes(1));
+
+        PricedCart priced = engine.price(List.of(item(1, 0.1, 3), item(2, 0.2, 1)));
+
+        assertEquals(50, priced.subtotalCents());
+        assertEquals(50, priced.totalCents());
+        assertEquals(0.5, CartPricingEngine.toAmount(priced.totalCents()));
+        assertEquals(30, priced.lines().getFirst().lineTotalCents());
+    }
+
+    @Test
+    @DisplayName("Discount applies from the minimum subtotal and tax is charged on the discounted amount")
+    void discountAndTax() {
+        // 10% off from 100.00, 8.25% tax
+        CartPricingEngine engine = new CartPricingEngine(825, 1000, 10_000, 100, Duration.ofMinutes(1));
+
+        PricedCart small = engine.price(List.of(item(1, 99.99, 1)));
+        assertEquals(0, small.discountCents());
+        assertEquals(825, small.taxCents());
+        assertEquals(10_824, small.totalCents());
+
+        PricedCart large = engine.price(List.of(item(1, 50.00, 3)));
+        assertEquals(15_000, large.subtotalCents());
+        assertEquals(1_500, large.discountCents());
+        assertEquals(1_114, large.taxCents());
+        assertEquals(14_614, large.totalCents());
+    }
+
+    @Test
+    @DisplayName("A cart is priced once per version and again after a price change")
+    void memoizedPerVersionAndPrices() {
+        CartPricingEngine engine = new CartPricingEngine(0, 0, 0, 100, Duration.ofMinutes(1));
+        CartItem item = item(1, 5.00, 2);
+        AtomicInteger loads = new AtomicInteger();
+
+        engine.price(7L, 1, () -> { loads.incrementAndGet(); return List.of(item); });
+        engine.price(7L, 1, () -> { loads.incrementAndGet(); return List.of(item); });
+        assertEquals(1, loads.get());
+
+        engine.price(7L, 2, () -> { loads.incrementAndGet(); return List.of(item); });
+        assertEquals(2, loads.get());
+
+        Product before = Product.copyOf(item.getProduct());
+        item.getProduct().setPrice(6.00);
+        engine.onProductChanged(ProductChangedEvent.updated(before, item.getProduct()));
+        PricedCart repriced = engine.price(7L, 2, () -> { loads.incrementAndGet(); return List.of(item); });
+        assertEquals(3, loads.get());
+        assertEquals(1_200, repriced.totalCents());
+    }
+
+    private static CartItem item(long productId, double price, int quantity) {
+        Product product = new Product();
+        product.setProductID(productId);
+        product.setName("Product " + productId);
+        product.setPrice(price);
+        CartItem item = new CartItem();
+        item.setProduct(product);
+        item.setQuantity(quantity);
+        return item;
+    }
+}
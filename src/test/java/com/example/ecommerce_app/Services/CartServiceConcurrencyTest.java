@@ -0,0 +1,78 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.Cart;
+import com.example.ecommerce_app.Model.CartItem;
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Repositories.CartItemRepository;
+import com.example.ecommerce_app.Repositories.CartRepository;
+import com.example.ecommerce_app.Repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class CartServiceConcurrencyTest {
+
+    @Autowired
+    private CartService cartService;
+
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartItemRepository cartItemRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @AfterEach
+    void cleanup() {
+        userRepository.findByUsername("username").ifPresent(cartService::clearCart);
+    }
+
+    @Test
+    @DisplayName("Concurrent adds of the same product end up as one row with every quantity counted")
+    void concurrentAddsOfSameProduct() throws Exception {
+        LocalUser user = userRepository.findByUsername("username").orElseThrow();
+        int threads = 8;
+        int addsPerThread = 25;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < addsPerThread; i++) {
+                    cartService.addItemToCart(user, 5L, 1);
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        Cart cart = cartRepository.findByUser(user).orElseThrow();
+        List<CartItem> items = cartItemRepository.findAll().stream()
+                .filter(item -> item.getCart().getId() == cart.getId())
+                .toList();
+        assertEquals(1, items.size());
+        assertEquals(threads * addsPerThread, items.getFirst().getQuantity());
+    }
+}
@@ -16,15 +16,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -40,6 +45,12 @@ public class CartServiceTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Spy
+    private CartPricingEngine pricingEngine = new CartPricingEngine(0, 0, 0, 100, Duration.ofMinutes(1));
+
+    @Mock
+    private CartWriteBehindBuffer writeBehind;
+
     @InjectMocks
     private CartService cartService;
 
@@ -140,18 +151,15 @@ public class CartServiceTest {
     @Test
     @DisplayName("6: Test add item to cart")
     void testAddItemToCart_AddingNewItem() {
-        cart.setItems(new ArrayList<>()); // Ensure it's empty
-
         when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartRepository.save(any())).thenReturn(cart);
+        when(cartItemRepository.incrementQuantity(1L, 1L, 3)).thenReturn(0);
+        when(cartItemRepository.insertItem(1L, 1L, 3)).thenReturn(1);
 
         Cart result = cartService.addItemToCart(user, 1L, 3);
 
-        assertEquals(1, cart.getItems().size()); // Now this passes
-        assertEquals(product, cart.getItems().getFirst().getProduct());
-        assertEquals(3, cart.getItems().getFirst().getQuantity());
-        verify(cartRepository).save(cart);
+        assertEquals(cart, result);
+        verify(cartItemRepository).insertItem(1L, 1L, 3);
+        verify(cartRepository, never()).save(any());
     }
 
 
@@ -159,26 +167,38 @@ public class CartServiceTest {
     @DisplayName("7: Test add item to cart - incrementing existing item")
     void testAddItemToCart_IncrementExistingItem() {
         when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.of(product));
-        when(cartRepository.save(any())).thenReturn(cart);
+        when(cartItemRepository.incrementQuantity(1L, 1L, 3)).thenReturn(1);
 
         Cart result = cartService.addItemToCart(user, 1L, 3);
 
-        assertEquals(1, cart.getItems().size());
-        assertEquals(5, cartItem.getQuantity());
-        verify(cartRepository).save(cart);
+        assertEquals(cart, result);
+        verify(cartItemRepository, never()).insertItem(anyLong(), anyLong(), anyInt());
     }
 
     @Test
     @DisplayName("8: Test add item to cart - adding to empty cart")
     void testAddItemToCart_ThrowsExceptionWhenProductNotFound() {
         when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
-        when(productRepository.findById(1L)).thenReturn(Optional.empty());
+        when(cartItemRepository.incrementQuantity(1L, 1L, 3)).thenReturn(0);
+        when(cartItemRepository.insertItem(1L, 1L, 3)).thenReturn(0);
 
         assertThrows(EntityNotFoundException.class, () ->
                 cartService.addItemToCart(user, 1L, 3));
     }
 
+    @Test
+    @DisplayName("8b: Test add item to cart - lost insert race falls back to increment")
+    void testAddItemToCart_RetriesAfterConcurrentInsert() {
+        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        when(cartItemRepository.incrementQuantity(1L, 1L, 3)).thenReturn(0, 1);
+        when(cartItemRepository.insertItem(1L, 1L, 3)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        cartService.addItemToCart(user, 1L, 3);
+
+        verify(cartItemRepository, times(2)).incrementQuantity(1L, 1L, 3);
+        verify(cartItemRepository).insertItem(1L, 1L, 3);
+    }
+
     @Test
     @DisplayName("9: Test requesting cart items details")
     void testGetItemDetails() {
@@ -234,6 +254,27 @@ public class CartServiceTest {
 
         assertEquals(5, cartItem.getQuantity());
         verify(cartItemRepository).save(cartItem);
+        verify(cartRepository).bumpVersion(1L);
+    }
+
+    @Test
+    @DisplayName("14: Test cart totals are priced once per cart version")
+    void testMapToDTO_MemoizedPerVersion() {
+        product.setPrice(19.99);
+        cartItem.setQuantity(3);
+
+        CartResponse first = cartService.mapToDTO(cart);
+        assertEquals(5997, first.getSubtotalCents());
+        assertEquals(5997, first.getTotalCents());
+        assertEquals(5997, first.getItems().getFirst().getLineTotalCents());
+        assertEquals(19.99, first.getItems().getFirst().getPrice());
+
+        // Same version: the memo answers without reading the items
+        cartItem.setQuantity(4);
+        assertEquals(5997, cartService.mapToDTO(cart).getTotalCents());
+
+        cart.setVersion(1);
+        assertEquals(7996, cartService.mapToDTO(cart).getTotalCents());
     }
 
     @AfterEach
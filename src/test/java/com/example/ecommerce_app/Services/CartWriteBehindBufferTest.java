@@ -0,0 +1,162 @@
+package com.example.ecommerce_app.Services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class CartWriteBehindBufferTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private CartWriteBehindBuffer buffer;
+
+    private CartWriteBehindBuffer newBuffer(String mode) {
+        return new CartWriteBehindBuffer(jdbcTemplate, transactionManager, mode, dir.resolve("cart.journal"), false, 4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (buffer != null) {
+            buffer.close();
+        }
+    }
+
+    @Test
+    @DisplayName("Edits are coalesced per item and written in one batch, after which the journal is empty")
+    @SuppressWarnings("unchecked")
+    void flushCoalescesEdits() throws Exception {
+        buffer = newBuffer("write-behind");
+        buffer.recordQuantity(1, 10, 2);
+        buffer.recordQuantity(1, 10, 3);
+        buffer.recordQuantity(1, 10, 4);
+        buffer.recordQuantity(1, 11, 1);
+        buffer.recordQuantity(2, 20, 5);
+
+        assertEquals(Map.of(10L, 4, 11L, 1), buffer.pendingQuantities(1));
+        assertEquals(5, Files.readAllLines(dir.resolve("cart.journal")).size());
+
+        assertEquals(3, buffer.flush());
+
+        ArgumentCaptor<List<Object[]>> items = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<Object[]>> carts = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("update cart_items"), items.capture());
+        verify(jdbcTemplate).batchUpdate(startsWith("update carts"), carts.capture());
+        assertEquals(3, items.getValue().size());
+        assertTrue(items.getValue().stream().anyMatch(args -> args[0].equals(4) && args[1].equals(10L) && args[2].equals(1L)));
+        assertEquals(2, carts.getValue().size());
+        assertTrue(buffer.pendingQuantities(1).isEmpty());
+        assertTrue(Files.readAllLines(dir.resolve("cart.journal")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("When the journal cannot be compacted, flushed edits are marked so a restart does not replay them")
+    void failedCompactionMarksFlushedEdits() throws Exception {
+        // A directory where the compacted journal would be written makes compaction fail
+        Files.createDirectory(dir.resolve("cart.journal.compact"));
+        buffer = newBuffer("write-behind");
+        buffer.recordQuantity(1, 10, 2);
+        buffer.recordQuantity(1, 11, 3);
+
+        assertEquals(2, buffer.flush());
+        buffer.recordQuantity(1, 11, 4);
+
+        CartWriteBehindBuffer restarted = newBuffer("write-behind");
+        assertEquals(Map.of(11L, 4), restarted.pendingQuantities(1));
+        restarted.close();
+    }
+
+    @Test
+    @DisplayName("Edits left in the journal by a crash are replayed on startup, skipping a torn last line")
+    void journalIsReplayed() throws Exception {
+        CartWriteBehindBuffer crashed = newBuffer("write-behind");
+        crashed.recordQuantity(1, 10, 2);
+        crashed.recordQuantity(1, 10, 7);
+        Files.writeString(dir.resolve("cart.journal"), "1 11", StandardOpenOption.APPEND);
+
+        buffer = newBuffer("write-behind");
+
+        assertEquals(Map.of(10L, 7), buffer.pendingQuantities(1));
+    }
+
+    @Test
+    @DisplayName("A failed flush keeps the edits pending and journaled without overwriting newer ones")
+    void failedFlushKeepsEdits() throws Exception {
+        buffer = newBuffer("write-behind");
+        buffer.recordQuantity(1, 10, 2);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertEquals(0, buffer.flush());
+        assertThrows(QueryTimeoutException.class, () -> buffer.flush(1));
+
+        assertEquals(Map.of(10L, 2), buffer.pendingQuantities(1));
+        assertEquals(List.of("1 10 2"), Files.readAllLines(dir.resolve("cart.journal")));
+        reset(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Discarded edits are not written; a single cart can be flushed on its own")
+    void discardAndFlushOneCart() {
+        buffer = newBuffer("write-behind");
+        buffer.recordQuantity(1, 10, 2);
+        buffer.recordQuantity(1, 11, 3);
+        buffer.recordQuantity(2, 20, 4);
+        buffer.discard(1, 11L);
+
+        assertTrue(buffer.flush(1));
+        assertFalse(buffer.flush(1));
+
+        assertEquals(Map.of(20L, 4), buffer.pendingQuantities(2));
+        buffer.discard(2, null);
+        assertTrue(buffer.pendingQuantities(2).isEmpty());
+        verify(jdbcTemplate, times(1)).batchUpdate(startsWith("update cart_items"), anyList());
+    }
+
+    @Test
+    @DisplayName("Edits being written stay visible to readers until their batch commits, and are gone from both maps after")
+    void inFlightEditsStayVisible() {
+        buffer = newBuffer("write-behind");
+        buffer.recordQuantity(1, 10, 6);
+        List<Map<Long, Integer>> seenDuringWrite = new ArrayList<>();
+        when(jdbcTemplate.batchUpdate(startsWith("update cart_items"), anyList())).thenAnswer(invocation -> {
+            seenDuringWrite.add(buffer.pendingQuantities(1));
+            return new int[]{1};
+        });
+
+        assertTrue(buffer.flush(1));
+
+        assertEquals(List.of(Map.of(10L, 6)), seenDuringWrite);
+        assertTrue(buffer.pendingQuantities(1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("In direct mode nothing is buffered or journaled")
+    void directModeIsInert() {
+        buffer = newBuffer("direct");
+
+        assertFalse(buffer.isEnabled());
+        assertFalse(buffer.flush(1));
+        assertEquals(0, buffer.flush());
+        assertTrue(buffer.pendingQuantities(1).isEmpty());
+        assertFalse(Files.exists(dir.resolve("cart.journal")));
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
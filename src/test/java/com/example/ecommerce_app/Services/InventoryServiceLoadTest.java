@@ -0,0 +1,184 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.UserOrder;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.Repositories.UserRepository;
+import com.example.ecommerce_app.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Load harness for stock reservations: many threads check out the same hot product at once.
+ * Asserts nothing is oversold and prints the reservation throughput under contention.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+public class InventoryServiceLoadTest {
+
+    private static final long HOT_PRODUCT = 9L;
+    // Synthetic order ids, well clear of anything the application creates in tests
+    private static final long ORDER_ID_BASE = 1_000_000L;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserOrderRepository orderRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private int originalQuantity;
+
+    @BeforeEach
+    void rememberStock() {
+        originalQuantity = stockOf(HOT_PRODUCT);
+    }
+
+    @AfterEach
+    void restoreStock() {
+        jdbcTemplate.update("update product set quantity = ? where productid = ?", originalQuantity, HOT_PRODUCT);
+        jdbcTemplate.update("delete from stock_reservations where order_id >= ?", ORDER_ID_BASE);
+    }
+
+    @Test
+    @DisplayName("Concurrent checkouts of one product never oversell it")
+    void concurrentReservationsOnHotProduct() throws Exception {
+        int stock = 500;
+        int threads = 16;
+        int attemptsPerThread = 100;
+        jdbcTemplate.update("update product set quantity = ? where productid = ?", stock, HOT_PRODUCT);
+
+        AtomicLong nextOrderId = new AtomicLong(ORDER_ID_BASE);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        inventoryService.reserve(nextOrderId.getAndIncrement(), Map.of(HOT_PRODUCT, 1));
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        int attempts = threads * attemptsPerThread;
+        assertEquals(stock, reserved.get());
+        assertEquals(attempts - stock, rejected.get());
+        assertEquals(0, stockOf(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("Releasing a reservation returns its stock exactly once")
+    void releaseRestoresStock() {
+        inventoryService.reserve(ORDER_ID_BASE, Map.of(HOT_PRODUCT, 3));
+        assertEquals(originalQuantity - 3, stockOf(HOT_PRODUCT));
+
+        assertEquals(1, inventoryService.release(ORDER_ID_BASE));
+        assertEquals(0, inventoryService.release(ORDER_ID_BASE));
+        assertEquals(originalQuantity, stockOf(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("A short product rejects the whole order and leaves the others untouched")
+    void shortProductRollsBackWholeOrder() {
+        int otherBefore = stockOf(1L);
+
+        assertThrows(InsufficientStockException.class,
+                () -> inventoryService.reserve(ORDER_ID_BASE, Map.of(1L, 1, HOT_PRODUCT, originalQuantity + 1)));
+
+        assertEquals(otherBefore, stockOf(1L));
+        assertEquals(originalQuantity, stockOf(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("The expiry sweep keeps the stock of an order whose payment is pending or completed")
+    void expirySkipsOrdersWithPendingOrCompletedPayment() {
+        UserOrder order = new UserOrder();
+        order.setUser(userRepository.findByUsername("username").orElseThrow());
+        order.setStatus("pending");
+        order.setOrderDate(LocalDateTime.now());
+        order.setItems(new ArrayList<>());
+        long orderId = orderRepository.save(order).getOrderID();
+        Payment payment = new Payment();
+        payment.setOrder(order);
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setTransactionId("PAY-" + UUID.randomUUID());
+        payment = paymentRepository.save(payment);
+        try {
+            inventoryService.reserve(orderId, Map.of(HOT_PRODUCT, 2));
+            jdbcTemplate.update("update stock_reservations set expires_at = ? where order_id = ?",
+                    LocalDateTime.now().minusMinutes(1), orderId);
+
+            inventoryService.releaseExpired();
+
+            assertEquals(originalQuantity - 2, stockOf(HOT_PRODUCT));
+            assertEquals("pending", orderRepository.findById(orderId).orElseThrow().getStatus());
+
+            // Completed without its PaymentCompletedEvent listeners having run yet
+            paymentRepository.updateStatusIf(payment.getId(), PaymentStatus.PENDING, PaymentStatus.COMPLETED);
+            inventoryService.releaseExpired();
+
+            assertEquals(originalQuantity - 2, stockOf(HOT_PRODUCT));
+            assertEquals("pending", orderRepository.findById(orderId).orElseThrow().getStatus());
+
+            paymentRepository.updateStatusIf(payment.getId(), PaymentStatus.COMPLETED, PaymentStatus.FAILED);
+            inventoryService.releaseExpired();
+
+            assertEquals(originalQuantity, stockOf(HOT_PRODUCT));
+            assertEquals("expired", orderRepository.findById(orderId).orElseThrow().getStatus());
+        } finally {
+            jdbcTemplate.update("delete from stock_reservations where order_id = ?", orderId);
+            paymentRepository.deleteById(payment.getId());
+            orderRepository.deleteById(orderId);
+        }
+    }
+
+    private int stockOf(long productId) {
+        return jdbcTemplate.queryForObject("select quantity from product where productid = ?", Integer.class, productId);
+    }
+}
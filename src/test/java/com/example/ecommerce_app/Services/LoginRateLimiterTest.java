@@ -0,0 +1,66 @@
+package com.example.ecommerce_app.Services;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LoginRateLimiterTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // 10 attempts a minute per IP, 3 a minute per account
+    private final LoginRateLimiter limiter = new LoginRateLimiter(10, Duration.ofMinutes(1), 3, Duration.ofMinutes(1),
+            1000, registry, nanos::get);
+
+    @Test
+    @DisplayName("An account gets its burst of attempts, then waits for a token to refill")
+    void accountBucketThrottlesAndRefills() {
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0." + i, "alice"));
+        }
+        Duration wait = limiter.tryAcquire("10.0.0.9", "Alice ");
+        assertEquals(Duration.ofSeconds(20), wait);
+        assertEquals(1.0, registry.get("auth.login.throttled").tag("limit", "account").counter().count());
+
+        nanos.addAndGet(Duration.ofSeconds(20).toNanos());
+        assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.9", "alice"));
+    }
+
+    @Test
+    @DisplayName("One IP is throttled across accounts, without using up those accounts' attempts")
+    void ipBucketThrottlesAcrossAccounts() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.1", "user" + i));
+        }
+        assertTrue(limiter.tryAcquire("10.0.0.1", "bob").compareTo(Duration.ZERO) > 0);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.2", "bob"));
+        }
+    }
+
+    @Test
+    @DisplayName("Successful logins give the account's token back but not the IP's")
+    void refundRestoresAccountTokensOnly() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.1", "alice"));
+            limiter.refund("alice");
+        }
+        assertTrue(limiter.tryAcquire("10.0.0.1", "mallory").compareTo(Duration.ZERO) > 0);
+        assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.2", "alice"));
+    }
+
+    @Test
+    @DisplayName("Attempts without an account are limited per IP only")
+    void attemptsWithoutAccount() {
+        for (int i = 0; i < 10; i++) {
+            assertEquals(Duration.ZERO, limiter.tryAcquire("10.0.0.1", null));
+        }
+        assertTrue(limiter.tryAcquire("10.0.0.1", null).compareTo(Duration.ZERO) > 0);
+    }
+}
@@ -1,18 +1,28 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Events.OrderCancelledEvent;
+import com.example.ecommerce_app.Events.OrderDeletedEvent;
+import com.example.ecommerce_app.Events.OrderPlacedEvent;
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
 import com.example.ecommerce_app.Model.*;
+import com.example.ecommerce_app.Repositories.CartItemRepository;
+import com.example.ecommerce_app.Repositories.CartRepository;
 import com.example.ecommerce_app.Repositories.OrderItemRepository;
-import com.example.ecommerce_app.Repositories.PaymentRepository;
 import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.exception.InsufficientStockException;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -33,10 +43,22 @@ public class OrderServiceTest {
     private OrderService orderService;
 
     @Mock
-    private PaymentService paymentService;
+    private InventoryService inventoryService;
 
     @Mock
-    private PaymentRepository paymentRepository;
+    private CartRepository cartRepository;
+
+    @Mock
+    private CartItemRepository cartItemRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private CartPricingEngine pricingEngine = new CartPricingEngine(0, 0, 0, 100, Duration.ofMinutes(1));
+
+    @Mock
+    private CartWriteBehindBuffer writeBehind;
 
     @BeforeEach
     public void setUp() {
@@ -86,6 +108,124 @@ public class OrderServiceTest {
         assertNotNull(result.getItems());
     }
 
+    @Test
+    public void testPlaceOrder_reservesStockPerProduct() {
+        Product product = new Product();
+        product.setProductID(3L);
+        product.setPrice(10.0);
+        CartItem first = new CartItem();
+        first.setProduct(product);
+        first.setQuantity(2);
+        CartItem second = new CartItem();
+        second.setProduct(product);
+        second.setQuantity(3);
+
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(i -> {
+            UserOrder saved = i.getArgument(0);
+            saved.setOrderID(42L);
+            return saved;
+        });
+
+        orderService.placeOrder(new LocalUser(), List.of(first, second));
+
+        verify(inventoryService).reserve(42L, Map.of(3L, 5));
+        verify(eventPublisher).publishEvent(new OrderPlacedEvent(42L, 0L, 50.0));
+    }
+
+    @Test
+    public void testPlaceOrder_insufficientStock() {
+        Product product = new Product();
+        product.setProductID(3L);
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(1);
+
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(i -> i.getArgument(0));
+        when(inventoryService.reserve(anyLong(), anyMap())).thenThrow(new InsufficientStockException(3L));
+
+        Assertions.assertThrows(InsufficientStockException.class,
+                () -> orderService.placeOrder(new LocalUser(), List.of(cartItem)));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    public void testCheckout_ordersCartAndClearsIt() {
+        LocalUser user = new LocalUser();
+        Product product = new Product();
+        product.setProductID(4L);
+        product.setPrice(20.0);
+        Cart cart = new Cart();
+        cart.setId(9L);
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(3);
+        cart.getItems().add(cartItem);
+
+        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        when(cartRepository.findWithItemsAndProductsByUser(user)).thenReturn(Optional.of(cart));
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(i -> i.getArgument(0));
+
+        UserOrder result = orderService.checkout(user);
+
+        assertEquals(60.0, result.getTotalPrice(), 0.01);
+        assertEquals(1, result.getItems().size());
+        verify(inventoryService).reserve(anyLong(), eq(Map.of(4L, 3)));
+        verify(cartItemRepository).deleteByCartId(9L);
+        verify(cartRepository).bumpVersion(9L);
+    }
+
+    @Test
+    public void testCheckout_servedFromPricingMemo() {
+        LocalUser user = new LocalUser();
+        Product product = new Product();
+        product.setProductID(4L);
+        product.setPrice(0.1);
+        Cart cart = new Cart();
+        cart.setId(9L);
+        cart.setVersion(3);
+        CartItem cartItem = new CartItem();
+        cartItem.setProduct(product);
+        cartItem.setQuantity(3);
+        cart.getItems().add(cartItem);
+        // The cart was viewed at this version, so checkout needs only the cart row
+        pricingEngine.price(9L, 3, cart::getItems);
+
+        when(cartRepository.findByUser(user)).thenReturn(Optional.of(cart));
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(i -> i.getArgument(0));
+
+        UserOrder result = orderService.checkout(user);
+
+        assertEquals(0.3, result.getTotalPrice());
+        verify(cartRepository, never()).findWithItemsAndProductsByUser(any());
+        verify(inventoryService).reserve(anyLong(), eq(Map.of(4L, 3)));
+    }
+
+    @Test
+    public void testCheckout_emptyCart() {
+        LocalUser user = new LocalUser();
+        when(cartRepository.findByUser(user)).thenReturn(Optional.of(new Cart()));
+        when(cartRepository.findWithItemsAndProductsByUser(user)).thenReturn(Optional.of(new Cart()));
+        when(orderRepo.save(any(UserOrder.class))).thenAnswer(i -> i.getArgument(0));
+
+        UserOrder result = orderService.checkout(user);
+
+        assertEquals(0.0, result.getTotalPrice(), 0.01);
+        verify(cartItemRepository, never()).deleteByCartId(anyLong());
+    }
+
+    @Test
+    public void testUpdateOrder_cancelReleasesStock() {
+        UserOrder order = new UserOrder();
+        order.setOrderID(7L);
+        order.setStatus("canceled");
+        when(orderRepo.save(order)).thenReturn(order);
+
+        orderService.updateOrder(order);
+
+        verify(eventPublisher).publishEvent(new OrderCancelledEvent(7L));
+        verifyNoInteractions(inventoryService);
+    }
+
     @Test
     public void testUpdateOrder() {
         UserOrder order = new UserOrder();
@@ -107,25 +247,26 @@ public class OrderServiceTest {
     }
 
     @Test
-    public void testDeleteOrder_with_payment() {
-        // Arrange
+    public void testDeleteOrder_publishesEventBeforeDeleting() {
         Long orderId = 10L;
-        Payment payment = new Payment();
-        UserOrder order = new UserOrder();
-        order.setOrderID(orderId);
-        payment.setOrder(order);
-
-        // Mock payment service to return a payment
-        when(paymentService.getPaymentByOrderId(orderId)).thenReturn(payment);
         when(orderRepo.existsById(orderId)).thenReturn(true);
 
-        // Act
         orderService.deleteOrder(orderId);
 
-        // Assert
-        verify(paymentRepository).deleteByOrder_OrderID(orderId);
-        verify(orderRepo).deleteById(orderId);
+        // Payment removal and stock release hang off the event; the order row goes last
+        var inOrder = inOrder(eventPublisher, orderRepo);
+        inOrder.verify(eventPublisher).publishEvent(new OrderDeletedEvent(orderId));
+        inOrder.verify(orderRepo).deleteById(orderId);
+        verifyNoInteractions(inventoryService);
+    }
+
+    @Test
+    public void testOnPaymentCompleted_marksOrderPaid() {
+        orderService.onPaymentCompleted(new PaymentCompletedEvent(3L, 10L));
+
+        verify(orderRepo).updateStatusIn(List.of(10L), "pending", "paid");
     }
+
     @Test
     public void testGetOrdersByUserWithStatus() {
         LocalUser user = new LocalUser();
@@ -0,0 +1,97 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.PaymentStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PaymentExecutionEngineTest {
+
+    private PaymentExecutionEngine engine;
+
+    @AfterEach
+    void shutdown() throws InterruptedException {
+        engine.shutdown();
+    }
+
+    @Test
+    @DisplayName("A charge runs on a virtual thread and reports its result")
+    void chargeRunsOnVirtualThread() throws Exception {
+        AtomicBoolean virtual = new AtomicBoolean();
+        engine = new PaymentExecutionEngine(charge -> {
+            virtual.set(Thread.currentThread().isVirtual());
+            return PaymentGateway.Result.completed();
+        }, 10);
+        BlockingQueue<PaymentGateway.Result> results = new LinkedBlockingQueue<>();
+
+        engine.submit(charge(100.0), results::add);
+
+        assertEquals(PaymentStatus.COMPLETED, results.poll(5, TimeUnit.SECONDS).status());
+        assertTrue(virtual.get());
+    }
+
+    @Test
+    @DisplayName("A gateway error becomes a failed result")
+    void gatewayErrorFails() throws Exception {
+        engine = new PaymentExecutionEngine(charge -> {
+            throw new IllegalStateException("gateway down");
+        }, 10);
+        BlockingQueue<PaymentGateway.Result> results = new LinkedBlockingQueue<>();
+
+        engine.submit(charge(100.0), results::add);
+
+        PaymentGateway.Result result = results.poll(5, TimeUnit.SECONDS);
+        assertEquals(PaymentStatus.FAILED, result.status());
+        assertEquals("gateway down", result.message());
+    }
+
+    @Test
+    @DisplayName("A result that cannot be recorded fails the payment instead")
+    void unrecordableResultFails() throws Exception {
+        engine = new PaymentExecutionEngine(charge -> PaymentGateway.Result.completed(), 10);
+        BlockingQueue<PaymentGateway.Result> results = new LinkedBlockingQueue<>();
+
+        engine.submit(charge(100.0), result -> {
+            results.add(result);
+            if (result.status() == PaymentStatus.COMPLETED) {
+                throw new IllegalStateException("database down");
+            }
+        });
+
+        assertEquals(PaymentStatus.COMPLETED, results.poll(5, TimeUnit.SECONDS).status());
+        PaymentGateway.Result fallback = results.poll(5, TimeUnit.SECONDS);
+        assertEquals(PaymentStatus.FAILED, fallback.status());
+        assertEquals("Could not record gateway result: database down", fallback.message());
+    }
+
+    @Test
+    @DisplayName("Slow charges overlap instead of queueing behind each other")
+    void slowChargesRunConcurrently() throws Exception {
+        engine = new PaymentExecutionEngine(new StubPaymentGateway(Duration.ofMillis(500)), 1000);
+        BlockingQueue<PaymentGateway.Result> results = new LinkedBlockingQueue<>();
+        int charges = 200;
+
+        long began = System.nanoTime();
+        for (int i = 0; i < charges; i++) {
+            engine.submit(charge(10.0), results::add);
+        }
+        for (int i = 0; i < charges; i++) {
+            assertEquals(PaymentStatus.COMPLETED, results.poll(5, TimeUnit.SECONDS).status());
+        }
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+
+        assertTrue(elapsedMillis < 5_000, "200 half-second charges took " + elapsedMillis + " ms");
+    }
+
+    private static PaymentGateway.Charge charge(double amount) {
+        return new PaymentGateway.Charge(1L, 1L, "PAY-test", "CREDIT_CARD", amount);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.LocalUser;
+import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentNotification;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.UserOrder;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.ProcessedPaymentNotificationRepository;
+import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.Repositories.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class PaymentNotificationPipelineTest {
+
+    @Autowired
+    private PaymentNotificationPipeline pipeline;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private UserOrderRepository orderRepository;
+
+    @Autowired
+    private ProcessedPaymentNotificationRepository processedRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final List<Payment> payments = new ArrayList<>();
+
+    @BeforeEach
+    void createPendingPayments() {
+        LocalUser user = userRepository.findByUsername("username").orElseThrow();
+        for (int i = 0; i < 3; i++) {
+            UserOrder order = new UserOrder();
+            order.setUser(user);
+            order.setStatus("pending");
+            order.setOrderDate(LocalDateTime.now());
+            order.setItems(new ArrayList<>());
+            order = orderRepository.save(order);
+
+            Payment payment = new Payment();
+            payment.setOrder(order);
+            payment.setUser(user);
+            payment.setMethod("CREDIT_CARD");
+            payment.setAmount(10.0);
+            payment.setTransactionId("PAY-" + UUID.randomUUID());
+            payments.add(paymentRepository.save(payment));
+        }
+    }
+
+    @AfterEach
+    void cleanup() {
+        for (Payment payment : payments) {
+            processedRepository.deleteById(payment.getTransactionId());
+            paymentRepository.deleteById(payment.getId());
+            orderRepository.deleteById(payment.getOrder().getOrderID());
+        }
+        payments.clear();
+    }
+
+    @Test
+    @DisplayName("A retry storm for one transaction settles the payment once and queues only the first delivery")
+    void redeliveriesAreDropped() {
+        String transactionId = payments.getFirst().getTransactionId();
+        int accepted = 0;
+        for (int i = 0; i < 1000; i++) {
+            if (pipeline.submit(notification(transactionId, "SUCCESS"))) {
+                accepted++;
+            }
+        }
+        awaitProcessed(transactionId);
+
+        assertEquals(1, accepted);
+        Payment payment = paymentRepository.findById(payments.getFirst().getId()).orElseThrow();
+        assertEquals(PaymentStatus.COMPLETED, payment.getStatus());
+        awaitOrderStatus(payment.getOrder().getOrderID(), "paid");
+        assertTrue(processedRepository.existsById(transactionId));
+    }
+
+    @Test
+    @DisplayName("A batch settles each payment with the status its notification reported")
+    void batchAppliesEachStatus() {
+        pipeline.submit(notification(payments.get(0).getTransactionId(), "SUCCESS"));
+        pipeline.submit(notification(payments.get(1).getTransactionId(), "DECLINED"));
+        pipeline.submit(notification(payments.get(2).getTransactionId(), "PROCESSING"));
+
+        awaitProcessed(payments.get(0).getTransactionId());
+        awaitProcessed(payments.get(1).getTransactionId());
+
+        assertEquals(PaymentStatus.COMPLETED, paymentRepository.findById(payments.get(0).getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.FAILED, paymentRepository.findById(payments.get(1).getId()).orElseThrow().getStatus());
+        assertEquals(PaymentStatus.PENDING, paymentRepository.findById(payments.get(2).getId()).orElseThrow().getStatus());
+        assertEquals("pending", orderRepository.findById(payments.get(1).getOrder().getOrderID()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("A notification for a settled payment is recorded and kept seen; one for no payment is forgotten")
+    void settledIsRecordedAndUnknownForgotten() {
+        Payment payment = payments.getFirst();
+        paymentRepository.updateStatusIf(payment.getId(), PaymentStatus.PENDING, PaymentStatus.FAILED);
+        String unknown = "PAY-" + UUID.randomUUID();
+
+        pipeline.submit(notification(payment.getTransactionId(), "SUCCESS"));
+        pipeline.submit(notification(unknown, "SUCCESS"));
+
+        awaitProcessed(payment.getTransactionId());
+        awaitForgotten(unknown);
+        pipeline.flush();
+        assertFalse(pipeline.submit(notification(payment.getTransactionId(), "SUCCESS")));
+        assertEquals(PaymentStatus.FAILED, paymentRepository.findById(payment.getId()).orElseThrow().getStatus());
+        assertFalse(processedRepository.existsById(unknown));
+    }
+
+    // The scheduled flush may pick the batch up first, so flush and wait until the batch has committed
+    private void awaitProcessed(String transactionId) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!processedRepository.existsById(transactionId)) {
+            assertTrue(System.currentTimeMillis() < deadline, "Notification for " + transactionId + " was not processed");
+            pipeline.flush();
+            Thread.yield();
+        }
+    }
+
+    // A notification matching no payment is dropped from the seen-set once its batch is done, so a redelivery is accepted again
+    private void awaitForgotten(String transactionId) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!pipeline.submit(notification(transactionId, "SUCCESS"))) {
+            assertTrue(System.currentTimeMillis() < deadline, "Notification for " + transactionId + " was never forgotten");
+            pipeline.flush();
+            Thread.yield();
+        }
+    }
+
+    // Orders are marked paid by an asynchronous PaymentCompletedEvent listener once the batch has committed
+    private void awaitOrderStatus(long orderId, String status) {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!status.equals(orderRepository.findById(orderId).orElseThrow().getStatus())) {
+            assertTrue(System.currentTimeMillis() < deadline, "Order " + orderId + " never became " + status);
+            Thread.yield();
+        }
+    }
+
+    private static PaymentNotification notification(String transactionId, String status) {
+        PaymentNotification notification = new PaymentNotification();
+        notification.setTransactionId(transactionId);
+        notification.setStatus(status);
+        return notification;
+    }
+}
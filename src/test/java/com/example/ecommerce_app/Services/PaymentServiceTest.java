@@ -1,8 +1,11 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Events.PaymentCompletedEvent;
 import com.example.ecommerce_app.Model.*;
 import com.example.ecommerce_app.Repositories.PaymentRepository;
+import com.example.ecommerce_app.Repositories.StockReservationRepository;
 import com.example.ecommerce_app.Repositories.UserOrderRepository;
+import com.example.ecommerce_app.exception.OrderNotPayableException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,6 +13,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -28,6 +34,21 @@ public class PaymentServiceTest {
     @Mock
     private UserOrderRepository orderRepository;
 
+    @Mock
+    private StockReservationRepository reservationRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private PaymentExecutionEngine executionEngine;
+
+    @Mock
+    private PaymentNotificationPipeline notificationPipeline;
+
     @InjectMocks
     private PaymentService paymentService;
 
@@ -48,6 +69,7 @@ public class PaymentServiceTest {
         order = new UserOrder();
         order.setOrderID(1L);
         order.setUser(user);
+        order.setStatus("pending");
 
         // Initialize test payment
         payment = new Payment();
@@ -58,6 +80,11 @@ public class PaymentServiceTest {
         payment.setMethod(PaymentMethod.CREDIT_CARD.toString());
         payment.setStatus(PaymentStatus.PENDING);
         payment.setCreatedAt(LocalDateTime.now());
+
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(reservationRepository.findByOrderIdAndStatus(1L, ReservationStatus.RESERVED))
+                .thenReturn(List.of(new StockReservation(1L, 1L, 1, LocalDateTime.now(), LocalDateTime.now().plusMinutes(15))));
     }
 
     @Test
@@ -73,6 +100,8 @@ public class PaymentServiceTest {
         assertEquals(PaymentMethod.CREDIT_CARD.toString(), result.getMethod());
         assertEquals(PaymentStatus.PENDING, result.getStatus());
         verify(paymentRepository).save(any(Payment.class));
+        verify(executionEngine).submit(any(PaymentGateway.Charge.class), any());
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
@@ -212,7 +241,7 @@ public class PaymentServiceTest {
     }
 
     @Test
-    @DisplayName("14: Test handling payment notification")
+    @DisplayName("14: Test notifications are handed to the ingestion pipeline")
     void handlePaymentNotification_success() {
         PaymentNotification notification = new PaymentNotification();
         notification.setTransactionId("TX123");
@@ -220,7 +249,59 @@ public class PaymentServiceTest {
 
         paymentService.handleNotification(notification);
 
-        // Since handleNotification only logs, verify no exceptions are thrown
+        verify(notificationPipeline).submit(notification);
         verifyNoInteractions(paymentRepository, orderRepository);
     }
+
+    @Test
+    @DisplayName("15: Test completing a payment marks the order paid and keeps its stock")
+    void settle_completed() {
+        when(paymentRepository.updateStatusIf(1L, PaymentStatus.PENDING, PaymentStatus.COMPLETED)).thenReturn(1);
+
+        assertTrue(paymentService.settle(1L, 1L, PaymentStatus.COMPLETED));
+        verify(eventPublisher).publishEvent(new PaymentCompletedEvent(1L, 1L));
+        verifyNoInteractions(orderRepository);
+    }
+
+    @Test
+    @DisplayName("16: Test an already settled payment is not settled again")
+    void settle_alreadySettled() {
+        when(paymentRepository.updateStatusIf(1L, PaymentStatus.PENDING, PaymentStatus.COMPLETED)).thenReturn(0);
+
+        assertFalse(paymentService.settle(1L, 1L, PaymentStatus.COMPLETED));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("17: Test a failed payment keeps the stock reserved for a retry")
+    void settle_failed() {
+        when(paymentRepository.updateStatusIf(1L, PaymentStatus.PENDING, PaymentStatus.FAILED)).thenReturn(1);
+
+        assertTrue(paymentService.settle(1L, 1L, PaymentStatus.FAILED));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("17: Test an order that is no longer pending cannot be paid")
+    void processPayment_orderNotPending() {
+        order.setStatus("expired");
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        assertThrows(OrderNotPayableException.class, () ->
+                paymentService.processPayment(1L, PaymentMethod.CREDIT_CARD, 100.0, user));
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(executionEngine);
+    }
+
+    @Test
+    @DisplayName("18: Test a pending order whose stock was released cannot be paid")
+    void processPayment_noReservedStock() {
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+        when(reservationRepository.findByOrderIdAndStatus(1L, ReservationStatus.RESERVED)).thenReturn(List.of());
+
+        assertThrows(OrderNotPayableException.class, () ->
+                paymentService.processPayment(1L, PaymentMethod.CREDIT_CARD, 100.0, user));
+        verify(paymentRepository, never()).save(any(Payment.class));
+        verifyNoInteractions(executionEngine);
+    }
 }
\ No newline at end of file
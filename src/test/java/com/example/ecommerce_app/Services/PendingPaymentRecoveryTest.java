@@ -0,0 +1,80 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.Payment;
+import com.example.ecommerce_app.Model.PaymentStatus;
+import com.example.ecommerce_app.Model.UserOrder;
+import com.example.ecommerce_app.Repositories.PaymentRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Limit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class PendingPaymentRecoveryTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-31T12:00:00Z");
+    private static final LocalDateTime CUTOFF = LocalDateTime.parse("2025-01-31T11:45:00");
+
+    private final PaymentRepository paymentRepository = mock(PaymentRepository.class);
+    private final PaymentGateway gateway = mock(PaymentGateway.class);
+    private final PaymentService paymentService = mock(PaymentService.class);
+
+    private final PendingPaymentRecovery recovery = new PendingPaymentRecovery(paymentRepository, gateway, paymentService,
+            Duration.ofMinutes(15), 100, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("A stale pending payment takes the outcome the gateway recorded for it")
+    void settlesFromGatewayRecord() throws Exception {
+        when(paymentRepository.findByStatusAndCreatedAtBefore(eq(PaymentStatus.PENDING), eq(CUTOFF), any(Limit.class)))
+                .thenReturn(List.of(payment(1L, 10L)));
+        when(gateway.lookup("PAY-1")).thenReturn(Optional.of(PaymentGateway.Result.completed()));
+        when(paymentService.settle(1L, 10L, PaymentStatus.COMPLETED)).thenReturn(true);
+
+        assertEquals(1, recovery.recover());
+    }
+
+    @Test
+    @DisplayName("A stale pending payment the gateway knows nothing about is failed")
+    void failsWithoutGatewayRecord() throws Exception {
+        when(paymentRepository.findByStatusAndCreatedAtBefore(eq(PaymentStatus.PENDING), eq(CUTOFF), any(Limit.class)))
+                .thenReturn(List.of(payment(1L, 10L)));
+        when(gateway.lookup("PAY-1")).thenReturn(Optional.empty());
+        when(paymentService.settle(1L, 10L, PaymentStatus.FAILED)).thenReturn(true);
+
+        assertEquals(1, recovery.recover());
+    }
+
+    @Test
+    @DisplayName("A payment whose lookup fails is left pending for the next run")
+    void lookupErrorLeavesPaymentPending() throws Exception {
+        when(paymentRepository.findByStatusAndCreatedAtBefore(eq(PaymentStatus.PENDING), eq(CUTOFF), any(Limit.class)))
+                .thenReturn(List.of(payment(1L, 10L), payment(2L, 20L)));
+        when(gateway.lookup("PAY-1")).thenThrow(new IllegalStateException("gateway down"));
+        when(gateway.lookup("PAY-2")).thenReturn(Optional.empty());
+        when(paymentService.settle(2L, 20L, PaymentStatus.FAILED)).thenReturn(true);
+
+        assertEquals(1, recovery.recover());
+        verify(paymentService, never()).settle(eq(1L), anyLong(), any());
+    }
+
+    private static Payment payment(long id, long orderId) {
+        UserOrder order = new UserOrder();
+        order.setOrderID(orderId);
+        Payment payment = new Payment();
+        payment.setId(id);
+        payment.setOrder(order);
+        payment.setTransactionId("PAY-" + id);
+        return payment;
+    }
+}
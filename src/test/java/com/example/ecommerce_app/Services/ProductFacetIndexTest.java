@@ -0,0 +1,74 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.PriceBandCount;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductFacetIndexTest {
+
+    private ProductFacetIndex index;
+
+    private static Product product(long id, double price, String category) {
+        Product product = new Product("Product " + id, price, 5, "description", "img-" + id, category);
+        product.setProductID(id);
+        return product;
+    }
+
+    private static List<Integer> counts(List<PriceBandCount> bands) {
+        return bands.stream().map(PriceBandCount::count).toList();
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductFacetIndex(new double[]{100, 50});
+        index.rebuild(List.of(
+                product(1, 20.0, "Electronics"),
+                product(2, 50.0, "Electronics"),
+                product(3, 150.0, "Electronics"),
+                product(4, 75.0, "Furniture")
+        ));
+    }
+
+    @Test
+    @DisplayName("1: Bands are half-open and sorted")
+    void bandBoundaries() {
+        assertEquals(3, index.bandCount());
+        assertEquals(0, index.bandOf(49.99));
+        assertEquals(1, index.bandOf(50.0));
+        assertEquals(2, index.bandOf(100.0));
+        assertEquals(50.0, index.bandMin(1));
+        assertEquals(100.0, index.bandMax(1));
+        assertNull(index.bandMax(2));
+    }
+
+    @Test
+    @DisplayName("2: Counts honour the other facet's filter")
+    void facetCounts() {
+        assertEquals(Map.of("Electronics", 3, "Furniture", 1), index.categoryCounts(null));
+        assertEquals(Map.of("Electronics", 1, "Furniture", 1), index.categoryCounts(1));
+        assertEquals(List.of(1, 2, 1), counts(index.priceBandCounts(null)));
+        assertEquals(List.of(1, 1, 1), counts(index.priceBandCounts("Electronics")));
+        assertEquals(List.of(0, 0, 0), counts(index.priceBandCounts("Toys")));
+    }
+
+    @Test
+    @DisplayName("3: Product changes adjust counts")
+    void appliesChanges() {
+        index.apply(ProductChangedEvent.updated(product(4, 75.0, "Furniture"), product(4, 10.0, "Electronics")));
+        assertEquals(Map.of("Electronics", 4), index.categoryCounts(null));
+        assertEquals(List.of(2, 1, 1), counts(index.priceBandCounts(null)));
+
+        index.apply(ProductChangedEvent.deleted(product(3, 150.0, "Electronics")));
+        index.apply(ProductChangedEvent.created(product(5, 500.0, "Sports")));
+        assertEquals(Map.of("Electronics", 3, "Sports", 1), index.categoryCounts(null));
+        assertEquals(List.of(2, 1, 1), counts(index.priceBandCounts(null)));
+    }
+}
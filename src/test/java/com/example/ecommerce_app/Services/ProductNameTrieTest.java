@@ -0,0 +1,67 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductNameTrieTest {
+
+    private ProductNameTrie trie;
+
+    private static Product product(long id, String name) {
+        Product product = new Product(name, 10.0, 5, "description", "img-" + id, "Electronics");
+        product.setProductID(id);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        trie = new ProductNameTrie();
+        trie.rebuild(List.of(
+                product(1, "Smartphone"),
+                product(2, "Smart Watch"),
+                product(3, "Wireless Mouse"),
+                product(4, "Mouse Pad")
+        ));
+    }
+
+    @Test
+    @DisplayName("1: Prefix returns names in order, ignoring case")
+    void suggestsByPrefix() {
+        assertEquals(List.of("Smart Watch", "Smartphone"), trie.suggest("SMA", null));
+        assertTrue(trie.suggest("xyz", null).isEmpty());
+        assertTrue(trie.suggest("", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("2: Later words in a name are suggestable")
+    void suggestsByWordStart() {
+        assertEquals(List.of("Wireless Mouse", "Mouse Pad"), trie.suggest("mou", null));
+    }
+
+    @Test
+    @DisplayName("3: Limit bounds suggestions")
+    void limitBoundsSuggestions() {
+        assertEquals(1, trie.suggest("s", 1).size());
+    }
+
+    @Test
+    @DisplayName("4: Renames and deletes are applied")
+    void appliesChanges() {
+        trie.apply(ProductChangedEvent.updated(product(2, "Smart Watch"), product(2, "Fitness Watch")));
+        assertEquals(List.of("Smartphone"), trie.suggest("smart", null));
+        assertEquals(List.of("Fitness Watch"), trie.suggest("watch", null));
+
+        trie.apply(ProductChangedEvent.deleted(product(1, "Smartphone")));
+        assertTrue(trie.suggest("smart", null).isEmpty());
+
+        trie.apply(ProductChangedEvent.created(product(5, "Smart TV")));
+        assertEquals(List.of("Smart TV"), trie.suggest("smart", null));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductPriceIndexTest {
+
+    private ProductPriceIndex index;
+
+    private static Product product(long id, double price, String category) {
+        Product product = new Product("Product " + id, price, 5, "description", "img-" + id, category);
+        product.setProductID(id);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductPriceIndex();
+        index.rebuild(List.of(
+                product(1, 999.99, "Electronics"),
+                product(2, 49.99, "Electronics"),
+                product(3, 199.99, "Furniture"),
+                product(4, 199.99, "Electronics"),
+                product(5, 59.99, "Home Appliances")
+        ));
+    }
+
+    @Test
+    @DisplayName("1: Range is inclusive and ordered by price then id")
+    void rangeIsInclusiveAndOrdered() {
+        assertEquals(List.of(2L, 5L, 3L, 4L), index.rangeIds(49.99, 199.99));
+        assertTrue(index.rangeIds(300, 900).isEmpty());
+        assertTrue(index.rangeIds(200, 100).isEmpty());
+    }
+
+    @Test
+    @DisplayName("2: Category filter and paging")
+    void categoryAndPaging() {
+        ProductPriceIndex.RangeSlice first = index.rangePage(0, 1000, "Electronics", 0, 2);
+        assertEquals(List.of(2L, 4L), first.ids());
+        assertEquals(3, first.total());
+
+        ProductPriceIndex.RangeSlice second = index.rangePage(0, 1000, "Electronics", 2, 2);
+        assertEquals(List.of(1L), second.ids());
+
+        assertTrue(index.rangePage(0, 1000, "Electronics", 10, 2).ids().isEmpty());
+        assertEquals(0, index.rangePage(0, 1000, "Toys", 0, 2).total());
+    }
+
+    @Test
+    @DisplayName("3: Price and category changes move the product")
+    void appliesChanges() {
+        index.apply(ProductChangedEvent.updated(product(4, 199.99, "Electronics"), product(4, 19.99, "Accessories")));
+
+        assertEquals(List.of(4L, 2L), index.rangeIds(0, 50));
+        assertEquals(2, index.rangePage(0, 1000, "Electronics", 0, 10).total());
+        assertEquals(List.of(4L), index.rangePage(0, 1000, "Accessories", 0, 10).ids());
+
+        index.apply(ProductChangedEvent.deleted(product(4, 19.99, "Accessories")));
+        assertEquals(List.of(2L), index.rangeIds(0, 50));
+        assertEquals(0, index.rangePage(0, 1000, "Accessories", 0, 10).total());
+
+        index.apply(ProductChangedEvent.created(product(6, 10.0, "Sports")));
+        assertEquals(List.of(6L, 2L), index.rangeIds(0, 50));
+    }
+}
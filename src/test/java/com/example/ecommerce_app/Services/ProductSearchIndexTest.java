@@ -0,0 +1,81 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.ProductSummary;
+import com.example.ecommerce_app.Events.ProductChangedEvent;
+import com.example.ecommerce_app.Model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    private static Product product(long id, String name, String description, String category) {
+        Product product = new Product(name, 10.0 * id, 5, description, "img-" + id, category);
+        product.setProductID(id);
+        return product;
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex();
+        index.rebuild(List.of(
+                product(1, "Laptop", "High-performance laptop with 16GB RAM", "Electronics"),
+                product(2, "Backpack", "Water-resistant backpack with laptop compartment", "Accessories"),
+                product(3, "Wireless Mouse", "Ergonomic wireless mouse with long battery life", "Electronics"),
+                product(4, "Desk Chair", "Ergonomic office chair with lumbar support", "Furniture")
+        ));
+    }
+
+    @Test
+    @DisplayName("1: Name matches rank above description matches")
+    void nameMatchRanksFirst() {
+        List<ProductSummary> results = index.search("laptop", 10);
+
+        assertEquals(2, results.size());
+        assertEquals(1L, results.get(0).productID());
+        assertEquals(2L, results.get(1).productID());
+    }
+
+    @Test
+    @DisplayName("2: Prefix of an indexed term matches")
+    void prefixMatches() {
+        List<ProductSummary> results = index.search("ergo", 10);
+
+        assertEquals(List.of(3L, 4L), results.stream().map(ProductSummary::productID).toList());
+    }
+
+    @Test
+    @DisplayName("3: Every query token must match")
+    void allTokensMustMatch() {
+        assertEquals(1, index.search("ergonomic chair", 10).size());
+        assertTrue(index.search("laptop chair", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("4: Limit bounds the result count")
+    void limitBoundsResults() {
+        assertEquals(1, index.search("electronics", 1).size());
+        assertTrue(index.search("   ", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("5: Updates and deletes are applied")
+    void appliesChanges() {
+        Product before = product(4, "Desk Chair", "Ergonomic office chair with lumbar support", "Furniture");
+        Product after = product(4, "Gaming Chair", "Reclining chair", "Furniture");
+        index.apply(ProductChangedEvent.updated(before, after));
+
+        assertTrue(index.search("desk", 10).isEmpty());
+        assertEquals(4L, index.search("gaming", 10).getFirst().productID());
+
+        index.apply(ProductChangedEvent.deleted(after));
+        assertTrue(index.search("chair", 10).isEmpty());
+        assertEquals(3, index.size());
+    }
+}
@@ -1,5 +1,9 @@
 package com.example.ecommerce_app.Services;
 
+import com.example.ecommerce_app.Config.CacheConfig;
+import com.example.ecommerce_app.DTO.ProductPage;
+import com.example.ecommerce_app.DTO.ProductRangePage;
+import com.example.ecommerce_app.DTO.ProductSummary;
 import com.example.ecommerce_app.Model.Product;
 import com.example.ecommerce_app.exception.ProductAlreadyExistsException;
 import com.example.ecommerce_app.exception.ProductNotExistException;
@@ -10,7 +14,11 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.transaction.TestTransaction;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @SpringBootTest
@@ -19,6 +27,9 @@ public class ProductServiceTest {
     @Autowired
     ProductService productService;
 
+    @Autowired
+    CacheManager cacheManager;
+
 
     @Test
     @Transactional
@@ -75,4 +86,78 @@ public class ProductServiceTest {
         }
     }
 
+    @Test
+    @DisplayName("Test 7: walk the catalog with keyset pages")
+    public void testProductPageWalk() {
+        List<ProductSummary> seen = new ArrayList<>();
+        Long cursor = null;
+        ProductPage page;
+        do {
+            page = productService.getProductPage(cursor, 3);
+            Assertions.assertTrue(page.items().size() <= 3);
+            seen.addAll(page.items());
+            cursor = page.nextCursor();
+        } while (page.hasMore());
+
+        Assertions.assertNull(page.nextCursor());
+        Assertions.assertEquals(10, seen.size());
+        for (int i = 1; i < seen.size(); i++) {
+            Assertions.assertTrue(seen.get(i - 1).productID() < seen.get(i).productID());
+        }
+    }
+
+    @Test
+    @DisplayName("Test 8: page size falls back to default and is capped")
+    public void testProductPageSizeBounds() {
+        ProductPage page = productService.getProductPage(null, 0);
+        Assertions.assertEquals(10, page.items().size());
+        Assertions.assertFalse(page.hasMore());
+
+        ProductPage capped = productService.getProductPage(null, 10_000);
+        Assertions.assertEquals(10, capped.items().size());
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Test 9: cached product is evicted once its update completes")
+    public void testProductCacheEvictedOnUpdate() throws Exception {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCTS);
+        Product cached = productService.getProductById(3L);
+        Assertions.assertNotNull(cache.get(3L));
+
+        Product changed = Product.copyOf(cached);
+        changed.setPrice(1.0);
+        productService.updateProduct(3L, changed);
+        TestTransaction.end();
+
+        Assertions.assertNull(cache.get(3L));
+    }
+
+    @Test
+    @Transactional
+    @DisplayName("Test 10: creating a product only evicts searches its name matches")
+    public void testSearchCacheEvictedPrecisely() throws Exception {
+        Cache cache = cacheManager.getCache(CacheConfig.PRODUCT_SEARCH);
+        productService.searchProductsByName("Lap");
+        productService.searchProductsByName("Blender");
+        Assertions.assertNotNull(cache.get("lap"));
+        Assertions.assertNotNull(cache.get("blender"));
+
+        Product product = new Product("Lap Desk", 35.0, 4, "Portable lap desk", "https://image.url/lapdesk", "Furniture");
+        productService.createProduct(product);
+        TestTransaction.end();
+
+        Assertions.assertNull(cache.get("lap"));
+        Assertions.assertNotNull(cache.get("blender"));
+    }
+
+    @Test
+    @DisplayName("Test 11: a page number far past the end returns an empty page, not an error")
+    public void testFindProductInRangeHugePage() {
+        ProductRangePage page = productService.getProductsInRange(50, 200, null, Integer.MAX_VALUE, 20);
+
+        Assertions.assertTrue(page.items().isEmpty());
+        Assertions.assertEquals(6, page.total());
+    }
+
 }
@@ -0,0 +1,150 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.DTO.StockStripes;
+import com.example.ecommerce_app.exception.InsufficientStockException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+public class StripedStockServiceTest {
+
+    private static final long HOT_PRODUCT = 9L;
+    private static final long ORDER_ID_BASE = 2_000_000L;
+
+    @Autowired
+    private StripedStockService stripedStockService;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private int originalQuantity;
+
+    @BeforeEach
+    void rememberStock() {
+        originalQuantity = stockOf(HOT_PRODUCT);
+    }
+
+    @AfterEach
+    void restoreStock() {
+        stripedStockService.disable(HOT_PRODUCT);
+        jdbcTemplate.update("update product set quantity = ? where productid = ?", originalQuantity, HOT_PRODUCT);
+        jdbcTemplate.update("delete from stock_reservations where order_id >= ?", ORDER_ID_BASE);
+    }
+
+    @Test
+    @DisplayName("Enabling splits the stock evenly and disabling folds it back")
+    void enableAndDisable() {
+        setStock(10);
+
+        StockStripes enabled = stripedStockService.enable(HOT_PRODUCT, 4);
+
+        assertEquals(4, enabled.stripes());
+        assertEquals(10, enabled.quantity());
+        assertTrue(stripedStockService.isStriped(HOT_PRODUCT));
+        assertEquals(List.of(3, 3, 2, 2), jdbcTemplate.queryForList(
+                "select quantity from product_stock_shards where product_id = ? order by shard_no", Integer.class, HOT_PRODUCT));
+
+        StockStripes disabled = stripedStockService.disable(HOT_PRODUCT);
+
+        assertEquals(0, disabled.stripes());
+        assertEquals(10, stockOf(HOT_PRODUCT));
+        assertFalse(stripedStockService.isStriped(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("A draw larger than any one stripe is taken across stripes")
+    void drawSpanningStripes() {
+        setStock(10);
+        stripedStockService.enable(HOT_PRODUCT, 4);
+
+        inventoryService.reserve(ORDER_ID_BASE, Map.of(HOT_PRODUCT, 9));
+        assertThrows(InsufficientStockException.class,
+                () -> inventoryService.reserve(ORDER_ID_BASE + 1, Map.of(HOT_PRODUCT, 2)));
+
+        stripedStockService.reconcile();
+        assertEquals(1, stockOf(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("Released units go back to the stripes")
+    void releaseReturnsToStripes() {
+        setStock(10);
+        stripedStockService.enable(HOT_PRODUCT, 2);
+
+        inventoryService.reserve(ORDER_ID_BASE, Map.of(HOT_PRODUCT, 4));
+        inventoryService.release(ORDER_ID_BASE);
+
+        stripedStockService.reconcile();
+        assertEquals(10, stockOf(HOT_PRODUCT));
+    }
+
+    @Test
+    @DisplayName("Concurrent checkouts of a striped product never oversell it")
+    void concurrentReservationsOnStripedProduct() throws Exception {
+        int stock = 500;
+        int threads = 16;
+        int attemptsPerThread = 100;
+        setStock(stock);
+        stripedStockService.enable(HOT_PRODUCT, 8);
+
+        AtomicLong nextOrderId = new AtomicLong(ORDER_ID_BASE);
+        AtomicInteger reserved = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    try {
+                        inventoryService.reserve(nextOrderId.getAndIncrement(), Map.of(HOT_PRODUCT, 1));
+                        reserved.incrementAndGet();
+                    } catch (InsufficientStockException e) {
+                        // sold out
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(stock, reserved.get());
+        stripedStockService.reconcile();
+        assertEquals(0, stockOf(HOT_PRODUCT));
+    }
+
+    private void setStock(int quantity) {
+        jdbcTemplate.update("update product set quantity = ? where productid = ?", quantity, HOT_PRODUCT);
+    }
+
+    private int stockOf(long productId) {
+        return jdbcTemplate.queryForObject("select quantity from product where productid = ?", Integer.class, productId);
+    }
+}
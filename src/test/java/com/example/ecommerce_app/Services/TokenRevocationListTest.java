@@ -0,0 +1,76 @@
+package com.example.ecommerce_app.Services;
+
+import com.example.ecommerce_app.Model.RevokedToken;
+import com.example.ecommerce_app.Repositories.RevokedTokenRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+public class TokenRevocationListTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T12:00:00Z");
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private final TokenRevocationList revocations = new TokenRevocationList(repository, 1000, 0.01, Clock.fixed(NOW, ZoneOffset.UTC));
+
+    @Test
+    @DisplayName("A revoked id is reported revoked and persisted; other ids are not")
+    void revokeAndCheck() {
+        assertTrue(revocations.revoke("jti-1", NOW.plusSeconds(60)));
+
+        assertTrue(revocations.isRevoked("jti-1"));
+        assertFalse(revocations.isRevoked("jti-2"));
+        assertFalse(revocations.isRevoked(null));
+        verify(repository).saveAndFlush(any(RevokedToken.class));
+    }
+
+    @Test
+    @DisplayName("Revoking an id twice reports the second attempt, here or on another node")
+    void secondRevocationIsDetected() {
+        assertTrue(revocations.revoke("jti-1", NOW.plusSeconds(60)));
+        assertFalse(revocations.revoke("jti-1", NOW.plusSeconds(60)));
+
+        when(repository.saveAndFlush(any(RevokedToken.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        assertFalse(revocations.revoke("jti-2", NOW.plusSeconds(60)));
+    }
+
+    @Test
+    @DisplayName("Compaction drops expired ids and loads revocations made elsewhere")
+    void compactionReloadsLiveRevocations() {
+        revocations.revoke("expired", NOW.minusSeconds(1));
+        revocations.revoke("local", NOW.plusSeconds(60));
+        when(repository.deleteExpired(NOW)).thenReturn(1);
+        when(repository.findByExpiresAtAfter(NOW)).thenReturn(List.of(new RevokedToken("remote", NOW.plusSeconds(60))));
+
+        assertEquals(2, revocations.compact());
+
+        assertFalse(revocations.isRevoked("expired"));
+        assertTrue(revocations.isRevoked("local"));
+        assertTrue(revocations.isRevoked("remote"));
+    }
+
+    @Test
+    @DisplayName("The Bloom filter never misses an added id and rarely reports one it has not seen")
+    void bloomFilterFalsePositiveRate() {
+        TokenRevocationList.BloomFilter filter = new TokenRevocationList.BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("revoked-" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain("revoked-" + i));
+            if (filter.mightContain("live-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
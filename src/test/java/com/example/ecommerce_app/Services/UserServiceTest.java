@@ -9,6 +9,8 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 
 import java.util.List;
@@ -26,6 +28,12 @@ public class UserServiceTest {
     @Mock
     private BCryptPasswordEncoder passwordEncoder;
 
+    @Mock
+    private CacheManager cacheManager;
+
+    @Mock
+    private Cache userCache;
+
     @InjectMocks
     private UserService userService;
 
@@ -211,8 +219,10 @@ public class UserServiceTest {
         updated.setAddress("Alex");
         updated.setPhoneNumber("01111222333");
         when(userRepository.findById(user.getID())).thenReturn(Optional.of(user));
+        when(cacheManager.getCache("usersByUsername")).thenReturn(userCache);
         String result = userService.updateUserDetails(user.getID(), updated);
         assertEquals("User details updated successfully.", result);
+        verify(userCache).evict(user.getUsername());
     }
 
     @Test
@@ -270,7 +280,7 @@ public class UserServiceTest {
     @Test
     @DisplayName("24: Delete user failed as user not found")
     void deleteUser_userNotFound() {
-        when(userRepository.existsById(2L)).thenReturn(false);
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
         String result = userService.deleteUser(2L);
         assertEquals("User not found.", result);
     }
@@ -278,9 +288,41 @@ public class UserServiceTest {
     @Test
     @DisplayName("25: Delete user successful")
     void deleteUser_userFound() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(cacheManager.getCache("usersByUsername")).thenReturn(userCache);
         String result = userService.deleteUser(1L);
         assertEquals("User deleted successfully.", result);
         verify(userRepository).deleteById(1L);
+        verify(userCache).evict(user.getUsername());
+    }
+
+    @Test
+    @DisplayName("26: Login rehashes a password stored at an outdated cost")
+    void loginWithUsername_rehashesOutdatedHash() {
+        user.setPassword("oldHash");
+        when(userRepository.findByUsername(user.getUsername())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("12345678", "oldHash")).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding("oldHash")).thenReturn(true);
+        when(passwordEncoder.encode("12345678")).thenReturn("newHash");
+        when(cacheManager.getCache("usersByUsername")).thenReturn(userCache);
+
+        LocalUser result = userService.loginWithUsername(user.getUsername(), "12345678");
+
+        assertEquals("newHash", result.getPassword());
+        verify(userRepository).save(user);
+        verify(userCache).evict(user.getUsername());
+    }
+
+    @Test
+    @DisplayName("27: Login leaves a current hash untouched")
+    void loginWithEmail_keepsCurrentHash() {
+        user.setPassword("currentHash");
+        when(userRepository.findByEmail(user.getEmail())).thenReturn(Optional.of(user));
+        when(passwordEncoder.matches("12345678", "currentHash")).thenReturn(true);
+
+        userService.loginWithEmail(user.getEmail(), "12345678");
+
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(userRepository, never()).save(any(LocalUser.class));
     }
 }